@@ -0,0 +1,152 @@
+package com.example.roulette.loadtest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WebSocket listeners that count frames and measure how long each {@code BET_PLACED} event
+ * took to arrive. The lag is taken from the server's bet timestamp, so it is only meaningful
+ * when the load test runs on the same machine (and time zone) as the application.
+ */
+class Audience {
+
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final HttpClient httpClient;
+    private final JsonFactory jsonFactory;
+    private final URI url;
+    private final List<WebSocket> sockets = new ArrayList<>();
+    // Microseconds.
+    private final Recorder deliveryLag = new Recorder(3);
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    Audience(HttpClient httpClient, JsonFactory jsonFactory, URI url) {
+        this.httpClient = httpClient;
+        this.jsonFactory = jsonFactory;
+        this.url = url;
+    }
+
+    void connect(int listeners) {
+        List<CompletableFuture<WebSocket>> connecting = new ArrayList<>(listeners);
+        for (int i = 0; i < listeners; i++) {
+            connecting.add(httpClient.newWebSocketBuilder().buildAsync(url, new Listener()));
+        }
+        for (CompletableFuture<WebSocket> socket : connecting) {
+            sockets.add(socket.join());
+        }
+    }
+
+    void close() {
+        List<CompletableFuture<WebSocket>> closing = new ArrayList<>(sockets.size());
+        for (WebSocket socket : sockets) {
+            closing.add(socket.sendClose(WebSocket.NORMAL_CLOSURE, ""));
+        }
+        try {
+            CompletableFuture.allOf(closing.toArray(CompletableFuture[]::new))
+                    .get(CLOSE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            sockets.forEach(WebSocket::abort);
+        }
+    }
+
+    /**
+     * Delivery lag of the bet events received since the previous call, in microseconds.
+     */
+    Histogram intervalDeliveryLag() {
+        return deliveryLag.getIntervalHistogram();
+    }
+
+    long intervalFrames() {
+        return frames.sumThenReset();
+    }
+
+    long intervalErrors() {
+        return errors.sumThenReset();
+    }
+
+    private void receive(String frame, LocalDateTime receivedAt) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(frame)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String type = null;
+                String placedAt = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    if ("type".equals(field)) {
+                        type = parser.getText();
+                    } else if ("bet".equals(field)) {
+                        placedAt = betTimestamp(parser);
+                    } else {
+                        // Snapshots are skipped without building the bet list.
+                        parser.skipChildren();
+                    }
+                }
+                if ("BET_PLACED".equals(type) && placedAt != null) {
+                    long lag = Duration.between(LocalDateTime.parse(placedAt), receivedAt).toNanos();
+                    deliveryLag.recordValue(Math.max(TimeUnit.NANOSECONDS.toMicros(lag), 0));
+                }
+            }
+        }
+    }
+
+    private static String betTimestamp(JsonParser parser) throws IOException {
+        String timestamp = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("timestamp".equals(field)) {
+                timestamp = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return timestamp;
+    }
+
+    private class Listener implements WebSocket.Listener {
+
+        private final StringBuilder partial = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                LocalDateTime receivedAt = LocalDateTime.now();
+                frames.increment();
+                try {
+                    receive(partial.toString(), receivedAt);
+                } catch (IOException | RuntimeException e) {
+                    errors.increment();
+                }
+                partial.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            errors.increment();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.roulette.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Places bets at a fixed rate, each from its own virtual thread. Latency is measured from the
+ * moment a bet was due rather than when it was sent, so a stalled server shows up as latency
+ * instead of quietly lowering the offered load.
+ */
+class BetDriver {
+
+    private static final String[] COLORS = {"RED", "BLACK", "GREEN"};
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final LoadTestOptions options;
+    // Microseconds.
+    private final Recorder latency = new Recorder(3);
+    private final LongAdder failures = new LongAdder();
+
+    BetDriver(HttpClient httpClient, ObjectMapper objectMapper, LoadTestOptions options) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.options = options;
+    }
+
+    List<Long> createUsers() throws InterruptedException {
+        String prefix = "load-" + System.currentTimeMillis() + "-";
+        List<Callable<Long>> creations = new ArrayList<>(options.users());
+        for (int i = 0; i < options.users(); i++) {
+            String username = prefix + i;
+            creations.add(() -> createUser(username));
+        }
+
+        List<Long> userIds = new ArrayList<>(options.users());
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Future<Long> userId : clients.invokeAll(creations)) {
+                userIds.add(userId.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not create the load test users", e.getCause());
+        }
+        return userIds;
+    }
+
+    private Long createUser(String username) throws IOException, InterruptedException {
+        String body = objectMapper.writeValueAsString(Map.of("username", username, "initialBalance", options.initialBalance()));
+        HttpResponse<String> response = httpClient.send(post("/api/roulette/user", body), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Creating user " + username + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body()).get("id").asLong();
+    }
+
+    /**
+     * Offers bets until {@code endNanos}, then waits for the ones still in flight.
+     */
+    void run(List<Long> userIds, long endNanos) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / options.betsPerSecond();
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long due = start + i * interval;
+                if (due >= endNanos) {
+                    break;
+                }
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                long userId = userIds.get((int) (i % userIds.size()));
+                clients.execute(() -> placeBet(userId, due));
+            }
+        }
+    }
+
+    private void placeBet(long userId, long due) {
+        String color = COLORS[ThreadLocalRandom.current().nextInt(COLORS.length)];
+        try {
+            String body = objectMapper.writeValueAsString(Map.of("userId", userId, "amount", options.stake(), "color", color));
+            HttpResponse<Void> response = httpClient.send(post("/api/roulette/bet", body), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() == 200) {
+                latency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due));
+            } else {
+                failures.increment();
+            }
+        } catch (IOException e) {
+            failures.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private HttpRequest post(String path, String body) {
+        return HttpRequest.newBuilder(URI.create(options.baseUrl() + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * Latency of the bets completed since the previous call, in microseconds.
+     */
+    Histogram intervalLatency() {
+        return latency.getIntervalHistogram();
+    }
+
+    long intervalFailures() {
+        return failures.sumThenReset();
+    }
+}
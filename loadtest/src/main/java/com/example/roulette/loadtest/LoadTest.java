@@ -0,0 +1,139 @@
+package com.example.roulette.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a running instance with REST bets and WebSocket audiences, printing per-interval
+ * progress and, at the end, the bet latency and broadcast delivery lag distributions of the
+ * measured period. Histogram values are recorded in microseconds and printed in
+ * milliseconds.
+ */
+public class LoadTest {
+
+    private static final long REPORT_INTERVAL_SECONDS = 5;
+    // Leaves time for the last bets to come through the outbox and the broadcast tick.
+    private static final Duration DRAIN = Duration.ofSeconds(2);
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LoadTestOptions options;
+    private final BetDriver betDriver;
+    private final Audience audience;
+    private final PrintStream out = System.out;
+    private final Histogram betLatency = new Histogram(3);
+    private final Histogram deliveryLag = new Histogram(3);
+    private long measureFrom;
+    private long lastReport;
+    private long measuredFrames;
+    private long measuredFailures;
+    private long measuredNanos;
+
+    LoadTest(LoadTestOptions options) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        ObjectMapper objectMapper = new ObjectMapper();
+        this.options = options;
+        this.betDriver = new BetDriver(httpClient, objectMapper, options);
+        this.audience = new Audience(httpClient, objectMapper.getFactory(), options.webSocketUrl());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        new LoadTest(options).run();
+    }
+
+    void run() throws InterruptedException {
+        out.printf("Creating %d users at %s%n", options.users(), options.baseUrl());
+        List<Long> userIds = betDriver.createUsers();
+        out.printf("Connecting %d WebSocket listeners to %s%n", options.listeners(), options.webSocketUrl());
+        audience.connect(options.listeners());
+
+        long start = System.nanoTime();
+        measureFrom = start + options.warmup().toNanos();
+        lastReport = start;
+        out.printf("Offering %d bets/s for %ds of warmup and %ds of measurement%n",
+                options.betsPerSecond(), options.warmup().toSeconds(), options.duration().toSeconds());
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(this::collect, REPORT_INTERVAL_SECONDS, REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        betDriver.run(userIds, measureFrom + options.duration().toNanos());
+        Thread.sleep(DRAIN.toMillis());
+        reporter.shutdown();
+        reporter.awaitTermination(REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        collect();
+        audience.close();
+
+        summarize();
+    }
+
+    /**
+     * Prints one progress line and, once the warmup is over, adds the interval to the totals.
+     */
+    private synchronized void collect() {
+        long now = System.nanoTime();
+        double seconds = (now - lastReport) / 1e9;
+        lastReport = now;
+
+        Histogram latency = betDriver.intervalLatency();
+        Histogram lag = audience.intervalDeliveryLag();
+        long frames = audience.intervalFrames();
+        long failures = betDriver.intervalFailures();
+        long socketErrors = audience.intervalErrors();
+        boolean measuring = now > measureFrom;
+        if (measuring) {
+            betLatency.add(latency);
+            deliveryLag.add(lag);
+            measuredFrames += frames;
+            measuredFailures += failures;
+            measuredNanos += (long) (seconds * 1e9);
+        }
+
+        out.printf("%s bets/s %8.1f  failed %6d  p99 %8.2f ms | frames/s %9.1f  lag p99 %8.2f ms  socket errors %d%n",
+                measuring ? "[run]   " : "[warmup]",
+                latency.getTotalCount() / seconds, failures, latency.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                frames / seconds, lag.getValueAtPercentile(99) / MICROS_PER_MILLI, socketErrors);
+    }
+
+    private void summarize() {
+        double seconds = measuredNanos / 1e9;
+        out.println();
+        out.printf("Measured %.1fs: %d bets (%.1f/s), %d failed, %d frames (%.1f/s across %d listeners)%n",
+                seconds, betLatency.getTotalCount(), betLatency.getTotalCount() / seconds, measuredFailures,
+                measuredFrames, measuredFrames / seconds, options.listeners());
+        printPercentiles("Bet latency", betLatency);
+        printPercentiles("Broadcast delivery lag", deliveryLag);
+
+        out.println();
+        out.println("Bet latency distribution (ms):");
+        betLatency.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        out.println();
+        out.println("Broadcast delivery lag distribution (ms):");
+        deliveryLag.outputPercentileDistribution(out, MICROS_PER_MILLI);
+    }
+
+    private void printPercentiles(String name, Histogram histogram) {
+        out.printf("%-24s p50 %8.2f ms  p99 %8.2f ms  p99.9 %8.2f ms  max %8.2f ms%n", name,
+                histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+}
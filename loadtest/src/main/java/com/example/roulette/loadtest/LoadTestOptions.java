@@ -0,0 +1,73 @@
+package com.example.roulette.loadtest;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code -name value} pairs.
+ */
+record LoadTestOptions(URI baseUrl,
+                       int users,
+                       BigDecimal initialBalance,
+                       BigDecimal stake,
+                       int betsPerSecond,
+                       int listeners,
+                       Duration duration,
+                       Duration warmup) {
+
+    static final String USAGE = """
+            Options (defaults in brackets):
+              -url <base url>        application under test [http://localhost:3333]
+              -users <n>             users created through the API [100]
+              -balance <amount>      initial balance of each user [1000000]
+              -stake <amount>        amount of every bet [1.00]
+              -rate <n>              bets per second across all clients [200]
+              -listeners <n>         WebSocket connections held open [100]
+              -duration <seconds>    length of the measured run [60]
+              -warmup <seconds>      load applied before measuring [10]
+            """;
+
+    static LoadTestOptions parse(String[] args) {
+        if (args.length % 2 != 0) {
+            throw new IllegalArgumentException("Options come in -name value pairs");
+        }
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("-")) {
+                throw new IllegalArgumentException("Expected an option name but got " + args[i]);
+            }
+            values.put(args[i].substring(1), args[i + 1]);
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                URI.create(stripTrailingSlash(values.getOrDefault("url", "http://localhost:3333"))),
+                Integer.parseInt(values.getOrDefault("users", "100")),
+                new BigDecimal(values.getOrDefault("balance", "1000000")),
+                new BigDecimal(values.getOrDefault("stake", "1.00")),
+                Integer.parseInt(values.getOrDefault("rate", "200")),
+                Integer.parseInt(values.getOrDefault("listeners", "100")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))));
+        values.keySet().removeAll(List.of("url", "users", "balance", "stake", "rate", "listeners", "duration", "warmup"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options " + values.keySet());
+        }
+        if (options.users < 1 || options.betsPerSecond < 1 || options.listeners < 0) {
+            throw new IllegalArgumentException("users and rate must be positive, listeners must not be negative");
+        }
+        return options;
+    }
+
+    URI webSocketUrl() {
+        String scheme = "https".equals(baseUrl.getScheme()) ? "wss" : "ws";
+        return URI.create(scheme + "://" + baseUrl.getRawAuthority() + "/ws/roulette");
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.roulette.service;
+
+import com.example.roulette.dto.BetResponseDTO;
+import com.example.roulette.model.Bet;
+import com.example.roulette.model.BetStatus;
+import com.example.roulette.model.Color;
+import com.example.roulette.model.Round;
+import com.example.roulette.model.RoundStatus;
+import com.example.roulette.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round engine work: the outcome draw, and the settlement math and mapping of settled bets to
+ * response DTOs, which grow with the number of bets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoundEngineBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Engines {
+        final OutcomeEngine random = new RandomOutcomeEngine();
+    }
+
+    @State(Scope.Thread)
+    public static class Bets {
+
+        @Param({"10", "1000", "50000"})
+        int size;
+
+        List<Bet> bets;
+        RoundLedger ledger;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(42);
+            Round round = new Round();
+            round.setId(1L);
+            round.setStatus(RoundStatus.IN_PROGRESS);
+            LocalDateTime timestamp = LocalDateTime.now();
+            Color[] colors = Color.values();
+
+            bets = new ArrayList<>(size);
+            ledger = new RoundLedger();
+            for (int i = 0; i < size; i++) {
+                Bet bet = new Bet();
+                bet.setId((long) i + 1);
+                bet.setUser(new User((long) random.nextInt(1000) + 1, null, null));
+                bet.setRound(round);
+                bet.setAmount(BigDecimal.valueOf(random.nextInt(10_000) + 1, 2));
+                bet.setColor(colors[random.nextInt(colors.length)]);
+                bet.setStatus(BetStatus.PENDING);
+                bet.setTimestamp(timestamp);
+                bets.add(bet);
+                ledger.append(bet, RoundLedger.toResponse(bet));
+            }
+            RoundEngine.calculateWinnings(bets, Color.RED);
+        }
+    }
+
+    @Benchmark
+    public Outcome randomOutcome(Engines engines) {
+        return engines.random.next();
+    }
+
+    @Benchmark
+    public List<Bet> calculateWinnings(Bets bets) {
+        RoundEngine.calculateWinnings(bets.bets, Color.GREEN);
+        return bets.bets;
+    }
+
+    @Benchmark
+    public List<BetResponseDTO> settledResponses(Bets bets) {
+        return bets.ledger.settledResponses();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.roulette.websocket;
+
+import com.example.roulette.dto.BetResponseDTO;
+import com.example.roulette.dto.RoundEventDTO;
+import com.example.roulette.dto.RoundEventType;
+import com.example.roulette.dto.RoundResponseDTO;
+import com.example.roulette.dto.RoundSnapshot;
+import com.example.roulette.model.BetStatus;
+import com.example.roulette.model.Color;
+import com.example.roulette.model.RoundStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a finished round: the one-off JSON encoding of the snapshot, and the
+ * frames built from it for each WebSocket sub-protocol.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FrameEncodingBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    int size;
+
+    private ObjectMapper objectMapper;
+    private JsonFrameCodec jsonCodec;
+    private CborFrameCodec cborCodec;
+    private RoundResponseDTO round;
+    private List<RoundEventDTO> frame;
+
+    @Setup
+    public void setUp() {
+        // Same defaults as the mapper Spring Boot configures for the application.
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        jsonCodec = new JsonFrameCodec(objectMapper);
+        cborCodec = new CborFrameCodec();
+
+        Random random = new Random(42);
+        LocalDateTime timestamp = LocalDateTime.now();
+        List<BetResponseDTO> bets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(10_000) + 1, 2);
+            boolean won = random.nextBoolean();
+            bets.add(new BetResponseDTO((long) i + 1, (long) random.nextInt(1000) + 1, amount,
+                    won ? Color.RED : Color.BLACK, won ? BetStatus.WON : BetStatus.LOST, timestamp, 1L,
+                    won ? amount.multiply(BigDecimal.valueOf(2)) : amount.negate()));
+        }
+        round = new RoundResponseDTO(1L, Color.RED, RoundStatus.FINISHED, null, null);
+        round.setBets(bets);
+
+        RoundEventDTO event = new RoundEventDTO();
+        event.setType(RoundEventType.SNAPSHOT);
+        event.setRoundId(round.getId());
+        event.setSnapshot(RoundSnapshot.encode(objectMapper, size, round));
+        frame = List.of(event);
+    }
+
+    @Benchmark
+    public RoundSnapshot encodeSnapshot() {
+        return RoundSnapshot.encode(objectMapper, size, round);
+    }
+
+    @Benchmark
+    public WebSocketMessage<?> jsonFrame() throws IOException {
+        return jsonCodec.encode(frame);
+    }
+
+    @Benchmark
+    public WebSocketMessage<?> cborFrame() throws IOException {
+        return cborCodec.encode(frame);
+    }
+}
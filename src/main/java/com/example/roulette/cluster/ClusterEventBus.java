@@ -0,0 +1,239 @@
+package com.example.roulette.cluster;
+
+import com.example.roulette.dto.RoundEventDTO;
+import com.example.roulette.dto.RoundEventType;
+import com.example.roulette.dto.RoundSnapshot;
+import com.example.roulette.service.RoundEngine;
+import com.example.roulette.service.RoundEventCodec;
+import com.example.roulette.service.RoundEventSink;
+import com.example.roulette.websocket.WebSocketHandler;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Carries round events from the leader to the WebSocket clients of every other node over
+ * Postgres {@code LISTEN/NOTIFY}. Each node assigns its own broadcast sequence numbers, so a
+ * client never sees the numbering of another node.
+ * <p>
+ * A notification payload is limited to 8000 bytes, so events are split into chunks sent in
+ * one transaction. Notifications from one sender arrive in order, which lets the receiver
+ * reassemble them per sender. Message header: {@code nodeId:messageId:index:count:}.
+ */
+@Component
+@ConditionalOnProperty(name = "roulette.cluster.enabled", havingValue = "true")
+public class ClusterEventBus implements RoundEventSink {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterEventBus.class);
+
+    private static final String CHANNEL = "roulette_events";
+    // Three UTF-8 bytes per char at most, which keeps a chunk and its header under the limit.
+    private static final int CHUNK_CHARS = 2500;
+    private static final int POLL_MILLIS = 500;
+    private static final long RECONNECT_MILLIS = 1000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaderElection leaderElection;
+    private final RoundEngine roundEngine;
+    private final WebSocketHandler webSocketHandler;
+    private final RoundEventCodec roundEventCodec;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong messageIds = new AtomicLong();
+    private final ExecutorService sender;
+    private final Map<String, Chunks> incoming = new HashMap<>();
+    private volatile RoundSnapshot lastSnapshot;
+    private volatile boolean running = true;
+    private Thread listener;
+
+    public ClusterEventBus(DataSource dataSource,
+                           JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           LeaderElection leaderElection,
+                           RoundEngine roundEngine,
+                           WebSocketHandler webSocketHandler,
+                           RoundEventCodec roundEventCodec) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.leaderElection = leaderElection;
+        this.roundEngine = roundEngine;
+        this.webSocketHandler = webSocketHandler;
+        this.roundEventCodec = roundEventCodec;
+        this.sender = Executors.newSingleThreadExecutor();
+        webSocketHandler.setResyncSource(this::currentSnapshot);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        listener = Thread.ofPlatform().name("cluster-events").daemon().start(this::listen);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        sender.shutdown();
+        sender.awaitTermination(1, TimeUnit.SECONDS);
+        if (listener != null) {
+            listener.join(POLL_MILLIS * 2L);
+        }
+    }
+
+    @Override
+    public void publish(RoundEventDTO event) {
+        if (leaderElection.isLeader()) {
+            sender.execute(() -> send(event));
+        }
+    }
+
+    private void send(RoundEventDTO event) {
+        String json = roundEventCodec.encode(event);
+
+        List<String> chunks = new ArrayList<>();
+        for (int start = 0; start < json.length(); ) {
+            int end = Math.min(start + CHUNK_CHARS, json.length());
+            if (end < json.length() && Character.isHighSurrogate(json.charAt(end - 1))) {
+                end--;
+            }
+            chunks.add(json.substring(start, end));
+            start = end;
+        }
+
+        String prefix = nodeId + ":" + messageIds.incrementAndGet() + ":";
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < chunks.size(); i++) {
+                    String payload = prefix + i + ":" + chunks.size() + ":" + chunks.get(i);
+                    jdbcTemplate.query("SELECT pg_notify(?, ?)", result -> null, CHANNEL, payload);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not notify the cluster of a round event", e);
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+                // The connection goes back to the pool.
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("UNLISTEN *");
+                }
+            } catch (SQLException | RuntimeException e) {
+                log.warn("Cluster event listener failed, reconnecting", e);
+                incoming.clear();
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        String[] header = payload.split(":", 5);
+        if (header.length < 5 || header[0].equals(nodeId)) {
+            return;
+        }
+        String sender = header[0];
+        long messageId = Long.parseLong(header[1]);
+        int index = Integer.parseInt(header[2]);
+        int count = Integer.parseInt(header[3]);
+
+        Chunks chunks = incoming.get(sender);
+        if (index == 0) {
+            chunks = new Chunks(messageId);
+            incoming.put(sender, chunks);
+        } else if (chunks == null || chunks.messageId != messageId || chunks.received != index) {
+            // A chunk went missing; drop the rest of this message.
+            incoming.remove(sender);
+            return;
+        }
+        chunks.json.append(header[4]);
+        chunks.received++;
+        if (chunks.received < count) {
+            return;
+        }
+        incoming.remove(sender);
+
+        try {
+            RoundEventDTO event = roundEventCodec.decode(chunks.json.toString());
+            // The closing round's last snapshots can arrive after the next round has opened.
+            RoundSnapshot snapshot = event.getSnapshot();
+            if (snapshot != null && (lastSnapshot == null || snapshot.getRoundId() >= lastSnapshot.getRoundId())) {
+                lastSnapshot = snapshot;
+            }
+            if (!leaderElection.isLeader()) {
+                webSocketHandler.publish(event);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not decode a round event from node {}", sender, e);
+        }
+    }
+
+    private RoundEventDTO currentSnapshot() {
+        RoundSnapshot snapshot = leaderElection.isLeader()
+                ? roundEngine.getCurrentRoundSnapshot().orElse(null)
+                : lastSnapshot;
+        if (snapshot == null) {
+            return null;
+        }
+        RoundEventDTO event = new RoundEventDTO();
+        event.setType(RoundEventType.SNAPSHOT);
+        event.setRoundId(snapshot.getRoundId());
+        event.setSnapshot(snapshot);
+        return event;
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(RECONNECT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static final class Chunks {
+        private final long messageId;
+        private final StringBuilder json = new StringBuilder();
+        private int received;
+
+        private Chunks(long messageId) {
+            this.messageId = messageId;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.roulette.cluster;
+
+import com.example.roulette.model.ClusterLeader;
+import com.example.roulette.repository.ClusterLeaderRepository;
+import com.example.roulette.service.BalanceCache;
+import com.example.roulette.service.RoundEngine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Elects the node that runs the {@link RoundEngine} and owns the {@link BalanceCache}. The
+ * leader holds a session-level Postgres advisory lock on a dedicated connection. If that
+ * connection dies, Postgres releases the lock and another node takes over on its next poll.
+ * <p>
+ * The leader records its URL in {@code cluster_leader}; followers read it to forward bets.
+ * Every election also increments the epoch there, which fences the balance writes of
+ * earlier leaders.
+ */
+@Component
+@ConditionalOnProperty(name = "roulette.cluster.enabled", havingValue = "true")
+public class LeaderElection {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderElection.class);
+
+    // "roulette" in ASCII, shared by every node of the cluster.
+    private static final long LOCK_KEY = 0x726f756c65747465L;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final DataSource dataSource;
+    private final RoundEngine roundEngine;
+    private final BalanceCache balanceCache;
+    private final ClusterLeaderRepository clusterLeaderRepository;
+    private final String advertisedUrl;
+    private final long pollIntervalMillis;
+    private final ScheduledExecutorService elector;
+    private Connection lockConnection;
+    private volatile boolean leader;
+    private volatile String leaderUrl;
+
+    public LeaderElection(DataSource dataSource,
+                          RoundEngine roundEngine,
+                          BalanceCache balanceCache,
+                          ClusterLeaderRepository clusterLeaderRepository,
+                          @Value("${roulette.cluster.advertised-url:http://localhost:${server.port:8080}}") String advertisedUrl,
+                          @Value("${roulette.cluster.election-interval-ms:2000}") long pollIntervalMillis) {
+        this.dataSource = dataSource;
+        this.roundEngine = roundEngine;
+        this.balanceCache = balanceCache;
+        this.clusterLeaderRepository = clusterLeaderRepository;
+        this.advertisedUrl = advertisedUrl;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.elector = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        elector.scheduleWithFixedDelay(this::pollQuietly, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        elector.shutdown();
+        elector.awaitTermination(VALIDATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (leader) {
+            demote();
+        }
+        closeLockConnection();
+    }
+
+    public boolean isLeader() {
+        return leader;
+    }
+
+    /**
+     * Base URL of the current leader, or {@code null} while none is known.
+     */
+    public String getLeaderUrl() {
+        return leader ? advertisedUrl : leaderUrl;
+    }
+
+    private void poll() throws SQLException {
+        if (leader) {
+            if (!lockConnection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                log.warn("Lost the round engine lock connection, stepping down");
+                demote();
+            }
+        } else if (tryLock()) {
+            promote();
+        }
+
+        if (!leader) {
+            leaderUrl = clusterLeaderRepository.findById(ClusterLeader.SINGLETON_ID)
+                    .map(ClusterLeader::getNodeUrl)
+                    .orElse(null);
+        }
+    }
+
+    private boolean tryLock() throws SQLException {
+        if (lockConnection == null || !lockConnection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+            closeLockConnection();
+            lockConnection = dataSource.getConnection();
+            lockConnection.setAutoCommit(true);
+        }
+        try (PreparedStatement statement = lockConnection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    private void promote() {
+        long previousEpoch = currentEpoch();
+        clusterLeaderRepository.claim(advertisedUrl, LocalDateTime.now());
+        long epoch = currentEpoch();
+        // Balances cached during an earlier term may have changed under another leader.
+        balanceCache.acquire(previousEpoch, epoch);
+        leader = true;
+        roundEngine.activate();
+        log.info("Elected round engine leader at {} for epoch {}", advertisedUrl, epoch);
+    }
+
+    private void demote() {
+        leader = false;
+        roundEngine.deactivate();
+        // Once another node has been elected, this flush is refused by the epoch check.
+        balanceCache.release();
+        closeLockConnection();
+    }
+
+    private long currentEpoch() {
+        return clusterLeaderRepository.findById(ClusterLeader.SINGLETON_ID)
+                .map(ClusterLeader::getEpoch)
+                .orElse(0L);
+    }
+
+    private void closeLockConnection() {
+        if (lockConnection == null) {
+            return;
+        }
+        Connection connection = lockConnection;
+        lockConnection = null;
+        // The connection goes back to the pool, so it must not keep the lock.
+        try (connection; PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock_all()")) {
+            statement.execute();
+        } catch (SQLException e) {
+            log.debug("Could not release the lock connection", e);
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Leader election poll failed, will retry", e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.roulette.cluster;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * On followers, proxies every request that reads or changes live state to the leader: bet
+ * intake, user balances, the current round, the outcome statistics and the leaderboard. Only
+ * the leader runs rounds and owns the balance cache, so serving these locally would split the
+ * game. Routes are matched by method and exact path; history reads, such as a user's bets, and
+ * WebSocket connections stay on the node that received them.
+ * <p>
+ * A forwarded request carries the shared {@code roulette.cluster.forward-secret} and is served
+ * by whichever node receives it, so a request is never forwarded twice. Without the secret a
+ * client could make a follower serve a leader route itself.
+ */
+@Component
+@ConditionalOnProperty(name = "roulette.cluster.enabled", havingValue = "true")
+public class LeaderForwardingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderForwardingFilter.class);
+
+    static final String FORWARDED_HEADER = "X-Roulette-Forwarded";
+    private static final List<LeaderRoute> LEADER_ROUTES = List.of(
+            route("POST", "/api/roulette/bet"),
+            route("POST", "/api/roulette/bets"),
+            route("POST", "/api/roulette/user"),
+            route("POST", "/api/roulette/user/{userId}/balance"),
+            route("GET", "/api/roulette/user/{userId}"),
+            route("DELETE", "/api/roulette/user/{userId}"),
+            route("GET", "/api/roulette/users"),
+            route("GET", "/api/roulette/round/current"),
+            route("GET", "/api/roulette/stats"),
+            route("GET", "/api/roulette/leaderboard"));
+    private static final List<String> COPIED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT);
+
+    private final LeaderElection leaderElection;
+    private final HttpClient httpClient;
+    private final Duration timeout;
+    private final byte[] forwardSecret;
+
+    public LeaderForwardingFilter(LeaderElection leaderElection,
+                                  @Value("${roulette.cluster.forward-timeout-ms:5000}") long timeoutMillis,
+                                  @Value("${roulette.cluster.forward-secret:}") String forwardSecret) {
+        if (forwardSecret.isBlank()) {
+            throw new IllegalStateException("roulette.cluster.forward-secret must be set in cluster mode");
+        }
+        this.leaderElection = leaderElection;
+        this.forwardSecret = forwardSecret.getBytes(StandardCharsets.UTF_8);
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (leaderElection.isLeader() || isForwarded(request)) {
+            return true;
+        }
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        return LEADER_ROUTES.stream().noneMatch(route -> route.matches(request.getMethod(), path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String leaderUrl = leaderElection.getLeaderUrl();
+        if (leaderUrl == null) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "No round engine leader elected");
+            return;
+        }
+
+        String target = leaderUrl + request.getRequestURI()
+                + (request.getQueryString() == null ? "" : "?" + request.getQueryString());
+        HttpRequest.Builder forwarded = HttpRequest.newBuilder(URI.create(target))
+                .timeout(timeout)
+                .header(FORWARDED_HEADER, new String(forwardSecret, StandardCharsets.UTF_8))
+                .method(request.getMethod(), HttpRequest.BodyPublishers.ofByteArray(request.getInputStream().readAllBytes()));
+        for (String header : COPIED_HEADERS) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                forwarded.header(header, value);
+            }
+        }
+
+        HttpResponse<byte[]> leaderResponse;
+        try {
+            leaderResponse = httpClient.send(forwarded.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        } catch (IOException e) {
+            log.warn("Could not forward {} {} to the leader at {}", request.getMethod(), request.getRequestURI(), leaderUrl, e);
+            response.sendError(HttpServletResponse.SC_BAD_GATEWAY, "Round engine leader unreachable");
+            return;
+        }
+
+        response.setStatus(leaderResponse.statusCode());
+        leaderResponse.headers().firstValue(HttpHeaders.CONTENT_TYPE).ifPresent(response::setContentType);
+        response.getOutputStream().write(leaderResponse.body());
+    }
+
+    private boolean isForwarded(HttpServletRequest request) {
+        String secret = request.getHeader(FORWARDED_HEADER);
+        return secret != null && MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8), forwardSecret);
+    }
+
+    private static LeaderRoute route(String method, String pattern) {
+        return new LeaderRoute(method, PathPatternParser.defaultInstance.parse(pattern));
+    }
+
+    private record LeaderRoute(String method, PathPattern pattern) {
+        boolean matches(String requestMethod, PathContainer path) {
+            return method.equals(requestMethod) && pattern.matches(path);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.roulette.config;
 
 import com.example.roulette.websocket.WebSocketHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
@@ -11,13 +14,28 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 @EnableWebSocket
 public class WebSocketConfig implements WebSocketConfigurer {
 
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int sendQueueCapacity;
+    private final long broadcastIntervalMillis;
+
+    public WebSocketConfig(ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${roulette.websocket.send-queue-capacity:64}") int sendQueueCapacity,
+                           @Value("${roulette.websocket.broadcast-interval-ms:75}") long broadcastIntervalMillis) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.sendQueueCapacity = sendQueueCapacity;
+        this.broadcastIntervalMillis = broadcastIntervalMillis;
+    }
+
     @Bean
     public WebSocketHandler webSocketHandler() {
-        return new WebSocketHandler();
+        return new WebSocketHandler(objectMapper, meterRegistry, sendQueueCapacity, broadcastIntervalMillis);
     }
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(webSocketHandler(), "/ws/roulette").setAllowedOrigins("*");
     }
-}
\ No newline at end of file
+}
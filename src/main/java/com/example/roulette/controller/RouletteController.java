@@ -2,35 +2,49 @@ package com.example.roulette.controller;
 
 import com.example.roulette.dto.*;
 import com.example.roulette.exception.UserNotFoundException;
+import com.example.roulette.model.RoundStatus;
 import com.example.roulette.model.User;
+import com.example.roulette.service.LeaderboardService;
 import com.example.roulette.service.RouletteService;
+import com.example.roulette.service.RoundStatisticsService;
 import com.example.roulette.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
+@Validated
 @RequestMapping("/api/roulette")
 @Tag(name = "Roulette API", description = "API for managing roulette game")
 public class RouletteController {
 
     private final RouletteService rouletteService;
     private final UserService userService;
+    private final RoundStatisticsService roundStatisticsService;
+    private final LeaderboardService leaderboardService;
 
-    public RouletteController(RouletteService rouletteService, UserService userService) {
+    public RouletteController(RouletteService rouletteService, UserService userService, RoundStatisticsService roundStatisticsService, LeaderboardService leaderboardService) {
         this.rouletteService = rouletteService;
         this.userService = userService;
+        this.roundStatisticsService = roundStatisticsService;
+        this.leaderboardService = leaderboardService;
     }
 
     @PostMapping("/bet")
     @Operation(summary = "Place a bet", description = "Places a bet in the current round")
-    public ResponseEntity<BetResponseDTO> placeBet(@RequestBody BetRequestDTO betRequest) {
+    public ResponseEntity<BetResponseDTO> placeBet(@Valid @RequestBody BetRequestDTO betRequest) {
         try {
             BetResponseDTO betResponse = rouletteService.placeBet(betRequest);
             return ResponseEntity.ok(betResponse);
@@ -39,6 +53,17 @@ public class RouletteController {
         }
     }
 
+    @PostMapping("/bets")
+    @Operation(summary = "Place several bets", description = "Places all given bets in the current round, or none of them if any bet fails")
+    public ResponseEntity<List<BetResponseDTO>> placeBets(@RequestBody List<@Valid BetRequestDTO> betRequests) {
+        try {
+            List<BetResponseDTO> betResponses = rouletteService.placeBets(betRequests);
+            return ResponseEntity.ok(betResponses);
+        } catch (UserNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
+
     @PostMapping("/user")
     @Operation(summary = "Create a new user", description = "Creates a new user with the given username and initial balance")
     public ResponseEntity<User> createUser(@RequestBody UserRequestDTO userRequest) {
@@ -78,6 +103,14 @@ public class RouletteController {
         }
     }
 
+    @GetMapping(value = "/round/current", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get the current round", description = "Retrieves the round that is currently open or being settled, including its bets")
+    public ResponseEntity<byte[]> getCurrentRound() {
+        return rouletteService.getCurrentRoundSnapshot()
+                .map(snapshot -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(snapshot.getJsonBytes()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/round/{roundId}")
     @Operation(summary = "Get round status by ID", description = "Retrieves the status of a round by its ID")
     public ResponseEntity<RoundResponseDTO> getRoundById(
@@ -87,17 +120,47 @@ public class RouletteController {
     }
 
     @GetMapping("/rounds")
-    @Operation(summary = "Get all rounds", description = "Retrieves a list of all rounds and their data")
-    public ResponseEntity<List<RoundResponseDTO>> getAllRounds() {
-        List<RoundResponseDTO> rounds = rouletteService.getAllRounds();
+    @Operation(summary = "Get rounds", description = "Retrieves one page of rounds ordered by ID. Pass the returned nextCursor as 'after' to get the next page")
+    public ResponseEntity<CursorPageDTO<RoundResponseDTO>> getRounds(
+            @RequestParam(required = false) @Parameter(description = "Return rounds with an ID greater than this cursor") Long after,
+            @RequestParam(defaultValue = "100") @Parameter(description = "Maximum number of rounds, at most 1000") int limit,
+            @RequestParam(required = false) @Parameter(description = "Only rounds with this status") RoundStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) @Parameter(description = "Only rounds started at or after this time") LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) @Parameter(description = "Only rounds started before this time") LocalDateTime to) {
+        CursorPageDTO<RoundResponseDTO> rounds = rouletteService.getRounds(after, limit, status, from, to);
         return ResponseEntity.ok(rounds);
     }
 
+    @GetMapping("/stats")
+    @Operation(summary = "Get outcome statistics", description = "Retrieves the last 100 results, color counts over them and over all rounds, and the current streak")
+    public ResponseEntity<RoundStatsDTO> getStats() {
+        return ResponseEntity.ok(roundStatisticsService.getStats());
+    }
+
+    @GetMapping("/leaderboard")
+    @Operation(summary = "Get the leaderboard", description = "Retrieves the top winners by net result for the current day and all time")
+    public ResponseEntity<LeaderboardDTO> getLeaderboard() {
+        return ResponseEntity.ok(leaderboardService.getLeaderboard());
+    }
+
+    @GetMapping(value = "/rounds/stream", produces = "application/x-ndjson")
+    @Operation(summary = "Stream rounds", description = "Streams all matching rounds as newline-delimited JSON, ordered by ID")
+    public ResponseEntity<StreamingResponseBody> streamRounds(
+            @RequestParam(required = false) @Parameter(description = "Return rounds with an ID greater than this cursor") Long after,
+            @RequestParam(required = false) @Parameter(description = "Only rounds with this status") RoundStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) @Parameter(description = "Only rounds started at or after this time") LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) @Parameter(description = "Only rounds started before this time") LocalDateTime to) {
+        StreamingResponseBody body = out -> rouletteService.streamRounds(after, status, from, to, out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
     @GetMapping("/user/{userId}/bets")
-    @Operation(summary = "Get bets by user ID", description = "Retrieves the bets of a user by their ID")
-    public ResponseEntity<List<BetResponseDTO>> getBetsByUserId(
-            @PathVariable @Parameter(description = "ID of the user") Long userId) {
-        List<BetResponseDTO> bets = rouletteService.getBetsByUserId(userId);
+    @Operation(summary = "Get bets by user ID", description = "Retrieves one page of a user's bets, newest first. Pass the returned nextCursor as 'before' to get the next page")
+    public ResponseEntity<CursorPageDTO<BetResponseDTO>> getBetsByUserId(
+            @PathVariable @Parameter(description = "ID of the user") Long userId,
+            @RequestParam(required = false) @Parameter(description = "Return bets with an ID lower than this cursor") Long before,
+            @RequestParam(defaultValue = "100") @Parameter(description = "Maximum number of bets, at most 1000") int limit) {
+        CursorPageDTO<BetResponseDTO> bets = rouletteService.getBetsByUserId(userId, before, limit);
         return ResponseEntity.ok(bets);
     }
 
@@ -1,11 +1,19 @@
 package com.example.roulette.dto;
 
 import com.example.roulette.model.Color;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
 
 public class BetRequestDTO {
+    @NotNull
     private Long userId;
+
+    @NotNull
+    @Positive
     private BigDecimal amount;
+
+    @NotNull
     private Color color;
 
     public Long getUserId() {
@@ -15,6 +15,21 @@ public class BetResponseDTO {
     private Long roundId;
     private BigDecimal winnings;
 
+    public BetResponseDTO() {
+    }
+
+    public BetResponseDTO(Long id, Long userId, BigDecimal amount, Color color, BetStatus status,
+                          LocalDateTime timestamp, Long roundId, BigDecimal winnings) {
+        this.id = id;
+        this.userId = userId;
+        this.amount = amount;
+        this.color = color;
+        this.status = status;
+        this.timestamp = timestamp;
+        this.roundId = roundId;
+        this.winnings = winnings;
+    }
+
     public Long getId() {
         return id;
     }
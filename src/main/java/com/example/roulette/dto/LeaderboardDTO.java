@@ -0,0 +1,43 @@
+package com.example.roulette.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class LeaderboardDTO {
+    private LocalDate day;
+    private List<LeaderboardEntryDTO> daily;
+    private List<LeaderboardEntryDTO> allTime;
+
+    public LeaderboardDTO() {
+    }
+
+    public LeaderboardDTO(LocalDate day, List<LeaderboardEntryDTO> daily, List<LeaderboardEntryDTO> allTime) {
+        this.day = day;
+        this.daily = daily;
+        this.allTime = allTime;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public List<LeaderboardEntryDTO> getDaily() {
+        return daily;
+    }
+
+    public void setDaily(List<LeaderboardEntryDTO> daily) {
+        this.daily = daily;
+    }
+
+    public List<LeaderboardEntryDTO> getAllTime() {
+        return allTime;
+    }
+
+    public void setAllTime(List<LeaderboardEntryDTO> allTime) {
+        this.allTime = allTime;
+    }
+}
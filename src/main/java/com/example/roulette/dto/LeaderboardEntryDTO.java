@@ -0,0 +1,32 @@
+package com.example.roulette.dto;
+
+import java.math.BigDecimal;
+
+public class LeaderboardEntryDTO {
+    private Long userId;
+    private BigDecimal net;
+
+    public LeaderboardEntryDTO() {
+    }
+
+    public LeaderboardEntryDTO(Long userId, BigDecimal net) {
+        this.userId = userId;
+        this.net = net;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public BigDecimal getNet() {
+        return net;
+    }
+
+    public void setNet(BigDecimal net) {
+        this.net = net;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.roulette.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+/**
+ * Event pushed on {@code /ws/roulette}, batched into one array per broadcast tick (JSON by
+ * default, CBOR for clients that negotiate the binary sub-protocol).
+ * A {@code SNAPSHOT} carries the full round, a {@code BET_PLACED} only the new bet and a
+ * {@code LEADERBOARD} the top winners after the round it names was settled. Sequence
+ * numbers increase by one per event; a client that sees a gap sends {@code {"type":"RESYNC"}}
+ * and receives a fresh snapshot.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RoundEventDTO {
+    private RoundEventType type;
+    private long sequence;
+    private Long roundId;
+    @JsonIgnore
+    private RoundSnapshot snapshot;
+    private BetResponseDTO bet;
+    private LeaderboardDTO leaderboard;
+
+    public RoundEventType getType() {
+        return type;
+    }
+
+    public void setType(RoundEventType type) {
+        this.type = type;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Long getRoundId() {
+        return roundId;
+    }
+
+    public void setRoundId(Long roundId) {
+        this.roundId = roundId;
+    }
+
+    public RoundSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(RoundSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @JsonProperty("round")
+    public RawValue getEncodedRound() {
+        return snapshot == null ? null : snapshot.getRawJson();
+    }
+
+    public BetResponseDTO getBet() {
+        return bet;
+    }
+
+    public void setBet(BetResponseDTO bet) {
+        this.bet = bet;
+    }
+
+    public LeaderboardDTO getLeaderboard() {
+        return leaderboard;
+    }
+
+    public void setLeaderboard(LeaderboardDTO leaderboard) {
+        this.leaderboard = leaderboard;
+    }
+}
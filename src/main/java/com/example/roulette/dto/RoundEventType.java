@@ -0,0 +1,5 @@
+package com.example.roulette.dto;
+
+public enum RoundEventType {
+    SNAPSHOT, BET_PLACED, LEADERBOARD
+}
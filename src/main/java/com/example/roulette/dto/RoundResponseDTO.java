@@ -2,6 +2,7 @@ package com.example.roulette.dto;
 
 import com.example.roulette.model.Color;
 import com.example.roulette.model.RoundStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
 
 public class RoundResponseDTO {
@@ -10,6 +11,22 @@ public class RoundResponseDTO {
     private RoundStatus status;
     private List<BetResponseDTO> bets;
     private long timeRemaining;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String serverSeedHash;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String serverSeed;
+
+    public RoundResponseDTO() {
+    }
+
+    public RoundResponseDTO(Long id, Color winningColor, RoundStatus status, String serverSeedHash, String serverSeed) {
+        this.id = id;
+        this.winningColor = winningColor;
+        this.status = status;
+        this.serverSeedHash = serverSeedHash;
+        this.serverSeed = serverSeed;
+        this.bets = List.of();
+    }
 
     public long getTimeRemaining() {
         return timeRemaining;
@@ -43,6 +60,22 @@ public class RoundResponseDTO {
         this.status = status;
     }
 
+    public String getServerSeedHash() {
+        return serverSeedHash;
+    }
+
+    public void setServerSeedHash(String serverSeedHash) {
+        this.serverSeedHash = serverSeedHash;
+    }
+
+    public String getServerSeed() {
+        return serverSeed;
+    }
+
+    public void setServerSeed(String serverSeed) {
+        this.serverSeed = serverSeed;
+    }
+
     public List<BetResponseDTO> getBets() {
         return bets;
     }
@@ -0,0 +1,32 @@
+package com.example.roulette.dto;
+
+import com.example.roulette.model.Color;
+
+public class RoundResultDTO {
+    private Long roundId;
+    private Color winningColor;
+
+    public RoundResultDTO() {
+    }
+
+    public RoundResultDTO(Long roundId, Color winningColor) {
+        this.roundId = roundId;
+        this.winningColor = winningColor;
+    }
+
+    public Long getRoundId() {
+        return roundId;
+    }
+
+    public void setRoundId(Long roundId) {
+        this.roundId = roundId;
+    }
+
+    public Color getWinningColor() {
+        return winningColor;
+    }
+
+    public void setWinningColor(Color winningColor) {
+        this.winningColor = winningColor;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.roulette.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+/**
+ * Immutable state of a round at a given version, serialized once. WebSocket frames splice
+ * the cached JSON in as a raw value and REST reads return its UTF-8 bytes, so repeated
+ * broadcasts of the same state never serialize the bet list again.
+ */
+public final class RoundSnapshot {
+
+    private final long roundId;
+    private final long version;
+    private final RoundResponseDTO round;
+    private final SerializedString json;
+    private final RawValue rawJson;
+
+    private RoundSnapshot(long roundId, long version, RoundResponseDTO round, SerializedString json) {
+        this.roundId = roundId;
+        this.version = version;
+        this.round = round;
+        this.json = json;
+        this.rawJson = new RawValue(json);
+    }
+
+    public static RoundSnapshot encode(ObjectMapper objectMapper, long version, RoundResponseDTO round) {
+        try {
+            return new RoundSnapshot(round.getId(), version, round, new SerializedString(objectMapper.writeValueAsString(round)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize round " + round.getId(), e);
+        }
+    }
+
+    public long getRoundId() {
+        return roundId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public RoundResponseDTO getRound() {
+        return round;
+    }
+
+    public RawValue getRawJson() {
+        return rawJson;
+    }
+
+    /**
+     * The cached UTF-8 encoding. The array is shared and must not be modified.
+     */
+    public byte[] getJsonBytes() {
+        return json.asUnquotedUTF8();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.roulette.dto;
+
+import com.example.roulette.model.Color;
+
+import java.util.List;
+import java.util.Map;
+
+public class RoundStatsDTO {
+    private List<RoundResultDTO> recentResults;
+    private Map<Color, Long> recentCounts;
+    private Map<Color, Long> totalCounts;
+    private long totalRounds;
+    private Color streakColor;
+    private int streakLength;
+
+    public RoundStatsDTO() {
+    }
+
+    public RoundStatsDTO(List<RoundResultDTO> recentResults, Map<Color, Long> recentCounts, Map<Color, Long> totalCounts,
+                         long totalRounds, Color streakColor, int streakLength) {
+        this.recentResults = recentResults;
+        this.recentCounts = recentCounts;
+        this.totalCounts = totalCounts;
+        this.totalRounds = totalRounds;
+        this.streakColor = streakColor;
+        this.streakLength = streakLength;
+    }
+
+    public List<RoundResultDTO> getRecentResults() {
+        return recentResults;
+    }
+
+    public void setRecentResults(List<RoundResultDTO> recentResults) {
+        this.recentResults = recentResults;
+    }
+
+    public Map<Color, Long> getRecentCounts() {
+        return recentCounts;
+    }
+
+    public void setRecentCounts(Map<Color, Long> recentCounts) {
+        this.recentCounts = recentCounts;
+    }
+
+    public Map<Color, Long> getTotalCounts() {
+        return totalCounts;
+    }
+
+    public void setTotalCounts(Map<Color, Long> totalCounts) {
+        this.totalCounts = totalCounts;
+    }
+
+    public long getTotalRounds() {
+        return totalRounds;
+    }
+
+    public void setTotalRounds(long totalRounds) {
+        this.totalRounds = totalRounds;
+    }
+
+    public Color getStreakColor() {
+        return streakColor;
+    }
+
+    public void setStreakColor(Color streakColor) {
+        this.streakColor = streakColor;
+    }
+
+    public int getStreakLength() {
+        return streakLength;
+    }
+
+    public void setStreakLength(int streakLength) {
+        this.streakLength = streakLength;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.roulette.exception;
+
+public class InsufficientBalanceException extends RuntimeException {
+    public InsufficientBalanceException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.example.roulette.exception;
+
+public class InvalidBetException extends RuntimeException {
+    public InvalidBetException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.example.roulette.exception;
+
+public class NotLeaderException extends RuntimeException {
+    public NotLeaderException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.example.roulette.exception;
+
+public class RoundClosedException extends RuntimeException {
+    public RoundClosedException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
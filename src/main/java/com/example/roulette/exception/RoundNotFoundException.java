@@ -0,0 +1,7 @@
+package com.example.roulette.exception;
+
+public class RoundNotFoundException extends RuntimeException {
+    public RoundNotFoundException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
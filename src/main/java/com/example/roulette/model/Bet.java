@@ -5,13 +5,17 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bets")
+@Table(name = "bets", indexes = {
+        @Index(name = "idx_bets_user_id_id", columnList = "user_id, id"),
+        @Index(name = "idx_bets_round_id", columnList = "round_id")
+})
 public class Bet {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bets_seq")
+    @SequenceGenerator(name = "bets_seq", sequenceName = "bets_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -29,7 +33,7 @@ public class Bet {
     @Column(nullable = false)
     private LocalDateTime timestamp;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "round_id", nullable = false)
     private Round round;
 
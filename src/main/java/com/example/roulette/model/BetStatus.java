@@ -1,5 +1,5 @@
 package com.example.roulette.model;
 
 public enum BetStatus {
-    PENDING, WON, LOST
+    PENDING, WON, LOST, REFUNDED
 }
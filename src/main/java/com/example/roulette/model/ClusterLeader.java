@@ -0,0 +1,62 @@
+package com.example.roulette.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * The single row naming the node that currently holds the round engine lock, so followers
+ * know where to forward bets. The epoch grows with every election and fences balance writes
+ * of earlier leaders.
+ */
+@Entity
+@Table(name = "cluster_leader")
+public class ClusterLeader {
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "node_url", nullable = false)
+    private String nodeUrl;
+
+    @Column(name = "elected_at", nullable = false)
+    private LocalDateTime electedAt;
+
+    @Column(name = "epoch")
+    private Long epoch;
+
+    public ClusterLeader() {
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getNodeUrl() {
+        return nodeUrl;
+    }
+
+    public void setNodeUrl(String nodeUrl) {
+        this.nodeUrl = nodeUrl;
+    }
+
+    public LocalDateTime getElectedAt() {
+        return electedAt;
+    }
+
+    public void setElectedAt(LocalDateTime electedAt) {
+        this.electedAt = electedAt;
+    }
+
+    public Long getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(Long epoch) {
+        this.epoch = epoch;
+    }
+}
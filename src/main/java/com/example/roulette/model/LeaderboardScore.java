@@ -0,0 +1,103 @@
+package com.example.roulette.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Checkpointed net result of one user on one day, in cents. {@code appliedThrough} is the start
+ * time of the last round the checkpoint had applied; rounds started after the latest one are
+ * replayed from the bets.
+ */
+@Entity
+@Table(name = "leaderboard_scores")
+@IdClass(LeaderboardScore.Key.class)
+public class LeaderboardScore {
+
+    @Id
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "net_cents", nullable = false)
+    private long netCents;
+
+    @Column(name = "applied_through", nullable = false)
+    private LocalDateTime appliedThrough;
+
+    public LeaderboardScore() {
+    }
+
+    public LeaderboardScore(LocalDate day, Long userId, long netCents, LocalDateTime appliedThrough) {
+        this.day = day;
+        this.userId = userId;
+        this.netCents = netCents;
+        this.appliedThrough = appliedThrough;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public long getNetCents() {
+        return netCents;
+    }
+
+    public void setNetCents(long netCents) {
+        this.netCents = netCents;
+    }
+
+    public LocalDateTime getAppliedThrough() {
+        return appliedThrough;
+    }
+
+    public void setAppliedThrough(LocalDateTime appliedThrough) {
+        this.appliedThrough = appliedThrough;
+    }
+
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private Long userId;
+
+        public Key() {
+        }
+
+        public Key(LocalDate day, Long userId) {
+            this.day = day;
+            this.userId = userId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(day, key.day) && Objects.equals(userId, key.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, userId);
+        }
+    }
+}
@@ -5,10 +5,14 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "rounds")
+@Table(name = "rounds", indexes = {
+        @Index(name = "idx_rounds_start_time", columnList = "startTime"),
+        @Index(name = "idx_rounds_status_id", columnList = "status, id")
+})
 public class Round {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rounds_seq")
+    @SequenceGenerator(name = "rounds_seq", sequenceName = "rounds_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -25,7 +29,17 @@ public class Round {
     @Column(nullable = false)
     private RoundStatus status;
 
-    @OneToMany(mappedBy = "round")
+    @Column(length = 64)
+    private String serverSeedHash;
+
+    @Column(length = 64)
+    private String serverSeed;
+
+    // False once the round is settled, true once its payout has reached the balances table.
+    @Column
+    private Boolean credited;
+
+    @OneToMany(mappedBy = "round", fetch = FetchType.LAZY)
     private List<Bet> bets;
 
     public Round() {
@@ -86,6 +100,30 @@ public class Round {
         this.status = status;
     }
 
+    public String getServerSeedHash() {
+        return serverSeedHash;
+    }
+
+    public void setServerSeedHash(String serverSeedHash) {
+        this.serverSeedHash = serverSeedHash;
+    }
+
+    public String getServerSeed() {
+        return serverSeed;
+    }
+
+    public void setServerSeed(String serverSeed) {
+        this.serverSeed = serverSeed;
+    }
+
+    public Boolean getCredited() {
+        return credited;
+    }
+
+    public void setCredited(Boolean credited) {
+        this.credited = credited;
+    }
+
     public List<Bet> getBets() {
         return bets;
     }
@@ -1,5 +1,5 @@
 package com.example.roulette.model;
 
 public enum RoundStatus {
-    WAITING, IN_PROGRESS, FINISHED
+    WAITING, IN_PROGRESS, FINISHED, CANCELLED
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.example.roulette.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+@Repository
+public class BalanceJdbcRepository {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String WRITE_BALANCE = "UPDATE users SET balance = ? WHERE id = ?";
+    private static final String MARK_CREDITED = "UPDATE rounds SET credited = true WHERE id = ?";
+    // Blocks a new election until this write commits, and sees any election that committed before.
+    private static final String LOCK_LEADER_EPOCH = "SELECT epoch FROM cluster_leader WHERE id = 1 FOR SHARE";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BalanceJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Writes the balances and marks the rounds whose payouts they include as credited, atomically.
+     * With a leader epoch, the write is refused unless that epoch is still the current one.
+     */
+    @Transactional
+    public void writeBalances(Map<Long, Long> balancesInCents, Collection<Long> creditedRoundIds, Long leaderEpoch) {
+        if (leaderEpoch != null) {
+            Long current = jdbcTemplate.query(LOCK_LEADER_EPOCH, rs -> rs.next() ? rs.getLong(1) : null);
+            if (!leaderEpoch.equals(current)) {
+                throw new IllegalStateException("Balances of leader epoch " + leaderEpoch + " are fenced off by epoch " + current);
+            }
+        }
+        jdbcTemplate.batchUpdate(WRITE_BALANCE, new ArrayList<>(balancesInCents.entrySet()), BATCH_SIZE, (ps, balance) -> {
+            ps.setBigDecimal(1, BigDecimal.valueOf(balance.getValue(), 2));
+            ps.setLong(2, balance.getKey());
+        });
+        jdbcTemplate.batchUpdate(MARK_CREDITED, new ArrayList<>(creditedRoundIds), BATCH_SIZE,
+                (ps, roundId) -> ps.setLong(1, roundId));
+    }
+}
@@ -1,16 +1,61 @@
 package com.example.roulette.repository;
 
+import com.example.roulette.dto.BetResponseDTO;
 import com.example.roulette.model.Bet;
-import com.example.roulette.model.Round;
-import com.example.roulette.model.User;
+import com.example.roulette.model.BetStatus;
+import com.example.roulette.model.RoundStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface BetRepository extends JpaRepository<Bet, Long> {
-    List<Bet> findByRound(Round currentRound);
+    @Modifying
+    @Query("DELETE FROM Bet b WHERE b.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
 
-    List<Bet> findByUser(User user);
-}
\ No newline at end of file
+    // Reads the foreign key columns directly, so neither the user nor the round is joined.
+    @Query("SELECT new com.example.roulette.dto.BetResponseDTO(b.id, b.user.id, b.amount, b.color, b.status, " +
+            "b.timestamp, b.round.id, b.winnings) FROM Bet b " +
+            "WHERE b.user.id = :userId AND b.id < :before ORDER BY b.id DESC")
+    List<BetResponseDTO> findPageByUserBefore(@Param("userId") Long userId,
+                                              @Param("before") long before,
+                                              Pageable pageable);
+
+    @Query("SELECT new com.example.roulette.dto.BetResponseDTO(b.id, b.user.id, b.amount, b.color, b.status, " +
+            "b.timestamp, b.round.id, b.winnings) FROM Bet b WHERE b.round.id = :roundId ORDER BY b.id")
+    List<BetResponseDTO> findResponsesByRound(@Param("roundId") Long roundId);
+
+    @Query("SELECT r.startTime AS startTime, b.user.id AS userId, " +
+            "SUM(CASE WHEN b.status = :won THEN b.winnings - b.amount ELSE b.winnings END) AS net " +
+            "FROM Bet b JOIN b.round r WHERE r.startTime > :after AND r.status = :finished " +
+            "GROUP BY r.id, r.startTime, b.user.id ORDER BY r.startTime")
+    List<RoundNet> sumNetByRoundStartedAfter(@Param("after") LocalDateTime after,
+                                             @Param("finished") RoundStatus finished,
+                                             @Param("won") BetStatus won);
+
+    @Query("SELECT b.user.id AS userId, SUM(b.winnings) AS winnings FROM Bet b " +
+            "WHERE b.round.id = :roundId AND b.winnings > 0 GROUP BY b.user.id")
+    List<UserWinnings> sumWinningsByRound(@Param("roundId") Long roundId);
+
+    interface RoundNet {
+        LocalDateTime getStartTime();
+
+        Long getUserId();
+
+        BigDecimal getNet();
+    }
+
+    interface UserWinnings {
+        Long getUserId();
+
+        BigDecimal getWinnings();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.roulette.repository;
+
+import com.example.roulette.model.ClusterLeader;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ClusterLeaderRepository extends JpaRepository<ClusterLeader, Integer> {
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO cluster_leader (id, node_url, elected_at, epoch) VALUES (1, :nodeUrl, :electedAt, 1) " +
+            "ON CONFLICT (id) DO UPDATE SET node_url = EXCLUDED.node_url, elected_at = EXCLUDED.elected_at, " +
+            "epoch = COALESCE(cluster_leader.epoch, 0) + 1",
+            nativeQuery = true)
+    void claim(@Param("nodeUrl") String nodeUrl, @Param("electedAt") LocalDateTime electedAt);
+}
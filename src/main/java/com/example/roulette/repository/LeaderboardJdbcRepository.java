@@ -0,0 +1,34 @@
+package com.example.roulette.repository;
+
+import com.example.roulette.model.LeaderboardScore;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+public class LeaderboardJdbcRepository {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String UPSERT_SCORE = "INSERT INTO leaderboard_scores (day, user_id, net_cents, applied_through) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (day, user_id) DO UPDATE SET net_cents = EXCLUDED.net_cents, applied_through = EXCLUDED.applied_through";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LeaderboardJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional
+    public void upsertScores(List<LeaderboardScore> scores) {
+        jdbcTemplate.batchUpdate(UPSERT_SCORE, scores, BATCH_SIZE, (ps, score) -> {
+            ps.setDate(1, Date.valueOf(score.getDay()));
+            ps.setLong(2, score.getUserId());
+            ps.setLong(3, score.getNetCents());
+            ps.setTimestamp(4, Timestamp.valueOf(score.getAppliedThrough()));
+        });
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.roulette.repository;
+
+import com.example.roulette.model.LeaderboardScore;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LeaderboardScoreRepository extends JpaRepository<LeaderboardScore, LeaderboardScore.Key> {
+
+    List<LeaderboardScore> findByDay(LocalDate day);
+
+    @Query("SELECT s.userId AS userId, SUM(s.netCents) AS netCents FROM LeaderboardScore s GROUP BY s.userId")
+    List<UserTotal> sumByUser();
+
+    @Query("SELECT MAX(s.appliedThrough) FROM LeaderboardScore s")
+    Optional<LocalDateTime> findAppliedThrough();
+
+    interface UserTotal {
+        Long getUserId();
+
+        long getNetCents();
+    }
+}
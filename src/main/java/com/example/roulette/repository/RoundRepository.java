@@ -1,13 +1,78 @@
 package com.example.roulette.repository;
 
+import com.example.roulette.dto.RoundResponseDTO;
+import com.example.roulette.dto.RoundResultDTO;
+import com.example.roulette.model.Color;
 import com.example.roulette.model.Round;
 import com.example.roulette.model.RoundStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RoundRepository extends JpaRepository<Round, Long> {
-}
\ No newline at end of file
+
+    @Query("SELECT new com.example.roulette.dto.RoundResponseDTO(r.id, r.winningColor, r.status, r.serverSeedHash, r.serverSeed) FROM Round r WHERE r.id = :id")
+    Optional<RoundResponseDTO> findResponseById(@Param("id") Long id);
+
+    @Query("SELECT new com.example.roulette.dto.RoundResponseDTO(r.id, r.winningColor, r.status, r.serverSeedHash, r.serverSeed) FROM Round r " +
+            "WHERE r.id > :after AND r.status IN :statuses AND r.startTime >= :from AND r.startTime < :to " +
+            "ORDER BY r.id")
+    List<RoundResponseDTO> findPageAfter(@Param("after") long after,
+                                         @Param("statuses") Collection<RoundStatus> statuses,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.roulette.dto.RoundResponseDTO(r.id, r.winningColor, r.status, r.serverSeedHash, r.serverSeed) FROM Round r " +
+            "WHERE r.id > :after AND r.status IN :statuses AND r.startTime >= :from AND r.startTime < :to " +
+            "ORDER BY r.id")
+    Stream<RoundResponseDTO> streamAfter(@Param("after") long after,
+                                         @Param("statuses") Collection<RoundStatus> statuses,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.example.roulette.dto.RoundResultDTO(r.id, r.winningColor) FROM Round r " +
+            "WHERE r.status = :status AND r.winningColor IS NOT NULL ORDER BY r.id DESC")
+    List<RoundResultDTO> findRecentResults(@Param("status") RoundStatus status, Pageable pageable);
+
+    @Query("SELECT r.winningColor AS color, COUNT(r) AS rounds FROM Round r " +
+            "WHERE r.status = :status AND r.winningColor IS NOT NULL GROUP BY r.winningColor")
+    List<ColorCount> countByWinningColor(@Param("status") RoundStatus status);
+
+    @Query("SELECT r.id FROM Round r WHERE r.status IN :statuses AND r.credited = false ORDER BY r.id")
+    List<Long> findUncreditedIds(@Param("statuses") Collection<RoundStatus> statuses);
+
+    List<Round> findByStatusIn(Collection<RoundStatus> statuses);
+
+    // Leaves the other columns alone, so a seed the drawing node revealed meanwhile is kept.
+    @Modifying
+    @Query("UPDATE Round r SET r.status = :status, r.credited = false, " +
+            "r.serverSeed = COALESCE(CAST(:serverSeed AS String), r.serverSeed) WHERE r.id = :id")
+    void markCancelled(@Param("id") Long id, @Param("serverSeed") String serverSeed, @Param("status") RoundStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Round r SET r.serverSeed = :serverSeed WHERE r.id = :id AND r.serverSeed IS NULL")
+    int revealServerSeed(@Param("id") Long id, @Param("serverSeed") String serverSeed);
+
+    interface ColorCount {
+        Color getColor();
+
+        long getRounds();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.roulette.repository;
+
+import com.example.roulette.model.Bet;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class SettlementJdbcRepository {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String UPDATE_BET_OUTCOME = "UPDATE bets SET status = ?, winnings = ? WHERE id = ?";
+    private static final String REFUND_ROUND_BETS = "UPDATE bets SET status = 'REFUNDED', winnings = amount WHERE round_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SettlementJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void updateBetOutcomes(List<Bet> bets) {
+        jdbcTemplate.batchUpdate(UPDATE_BET_OUTCOME, bets, BATCH_SIZE, (ps, bet) -> {
+            ps.setString(1, bet.getStatus().name());
+            ps.setBigDecimal(2, bet.getWinnings());
+            ps.setLong(3, bet.getId());
+        });
+    }
+
+    public int refundBets(Long roundId) {
+        return jdbcTemplate.update(REFUND_ROUND_BETS, roundId);
+    }
+}
@@ -0,0 +1,394 @@
+package com.example.roulette.service;
+
+import com.example.roulette.exception.InsufficientBalanceException;
+import com.example.roulette.exception.NotLeaderException;
+import com.example.roulette.exception.UserNotFoundException;
+import com.example.roulette.model.User;
+import com.example.roulette.repository.BalanceJdbcRepository;
+import com.example.roulette.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process, authoritative copy of user balances in cents. Every mutation is recorded in the
+ * {@link BalanceJournal} and returns once its record is durable, and dirty balances are
+ * flushed to the {@code users} table in batches on a fixed interval and at the end of every
+ * round.
+ * <p>
+ * Each user has its own lock, so updates for different users never contend. Operations
+ * touching several users lock them in ascending id order.
+ * <p>
+ * A round's payout is journaled with the round's id, and the flush that persists it marks the
+ * round as credited in the same transaction, so a payout survives a crash and is never applied
+ * twice.
+ * <p>
+ * In cluster mode only the leader owns the balances, between {@link #acquire(long, long)} and
+ * {@link #release()}, and changes are refused outside that term. Its flushes carry the leader
+ * epoch and are refused once a newer leader has been elected.
+ */
+@Service
+public class BalanceCache {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceCache.class);
+
+    private final UserRepository userRepository;
+    private final BalanceJdbcRepository balanceJdbcRepository;
+    private final BalanceJournal journal;
+    private final long flushIntervalMillis;
+    private final ConcurrentHashMap<Long, Cell> cells = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    // Rounds whose payout is journaled but not yet marked as credited in the database.
+    private final Set<Long> pendingPayouts = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService flusher;
+    private final boolean clusterEnabled;
+    // The leader epoch fencing flushes in cluster mode; null while this node does not own balances.
+    private volatile Long epoch;
+
+    public BalanceCache(UserRepository userRepository,
+                        BalanceJdbcRepository balanceJdbcRepository,
+                        @Value("${roulette.balance.journal-dir:data/balance-journal}") String journalDir,
+                        @Value("${roulette.balance.journal-fsync:true}") boolean journalFsync,
+                        @Value("${roulette.balance.flush-interval-ms:1000}") long flushIntervalMillis,
+                        @Value("${roulette.cluster.enabled:false}") boolean clusterEnabled) {
+        this.userRepository = userRepository;
+        this.balanceJdbcRepository = balanceJdbcRepository;
+        this.journal = new BalanceJournal(Path.of(journalDir), journalFsync);
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flusher = Executors.newSingleThreadScheduledExecutor();
+        this.clusterEnabled = clusterEnabled;
+    }
+
+    @PostConstruct
+    void start() {
+        // In cluster mode the journal is recovered when this node is elected.
+        if (!clusterEnabled) {
+            recover(null);
+        }
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        flusher.shutdown();
+        flush();
+        journal.close();
+    }
+
+    public long balance(Long userId) {
+        return cell(userId).cents;
+    }
+
+    public OptionalLong peek(Long userId) {
+        Cell cell = cells.get(userId);
+        return cell == null ? OptionalLong.empty() : OptionalLong.of(cell.cents);
+    }
+
+    public long debit(Long userId, long cents) {
+        return apply(BalanceJournal.NO_ROUND, Map.of(userId, -cents), true).get(userId);
+    }
+
+    public long credit(Long userId, long cents) {
+        return apply(BalanceJournal.NO_ROUND, Map.of(userId, cents), false).get(userId);
+    }
+
+    /**
+     * Debits every user or none: if any balance would go negative, nothing is changed.
+     */
+    public void debitAll(Map<Long, Long> debits) {
+        if (!debits.isEmpty()) {
+            Map<Long, Long> deltas = new HashMap<>();
+            debits.forEach((userId, cents) -> deltas.put(userId, -cents));
+            apply(BalanceJournal.NO_ROUND, deltas, true);
+        }
+    }
+
+    /**
+     * Applies all credits as one journal record, so a crash either keeps all of them or none.
+     */
+    public void creditAll(Map<Long, Long> credits) {
+        if (!credits.isEmpty()) {
+            apply(BalanceJournal.NO_ROUND, credits, false);
+        }
+    }
+
+    /**
+     * Pays out a round as one journal record, even if nobody bet, so that the round is marked as
+     * credited by the next flush. Users deleted since they bet are skipped.
+     */
+    public void creditRound(long roundId, Map<Long, Long> credits) {
+        Map<Long, Long> payable = new HashMap<>();
+        credits.forEach((userId, cents) -> {
+            try {
+                cell(userId);
+                payable.put(userId, cents);
+            } catch (UserNotFoundException e) {
+                log.warn("Skipping the payout of round {} to deleted user {}", roundId, userId);
+            }
+        });
+        apply(roundId, payable, false);
+    }
+
+    /**
+     * Whether the round's payout is journaled but not yet persisted by a flush.
+     */
+    public boolean isPayoutPending(long roundId) {
+        return pendingPayouts.contains(roundId);
+    }
+
+    public void evict(Long userId) {
+        cells.remove(userId);
+        dirty.remove(userId);
+    }
+
+    /**
+     * Takes ownership of the balances for the leader term {@code epoch}. Journal segments left
+     * by an earlier term of this node are written if no other leader has been elected since
+     * ({@code previousEpoch} is still the journal's epoch), and dropped otherwise, since another
+     * node has owned the balances in the meantime.
+     */
+    public void acquire(long previousEpoch, long epoch) {
+        flushLock.lock();
+        try {
+            invalidateAll();
+            pendingPayouts.clear();
+            journal.rotate();
+            List<Path> leftover = journal.sealedSegments();
+            if (journal.epoch() != previousEpoch && !leftover.isEmpty()) {
+                log.error("Dropping {} balance journal segments of leader epoch {}, a newer leader owned the balances since",
+                        leftover.size(), journal.epoch());
+                journal.delete(leftover);
+            }
+            // Recorded first, so a retry after a failed recovery still replays the segments.
+            journal.setEpoch(epoch);
+            recover(epoch);
+            this.epoch = epoch;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Gives up ownership at the end of a leader term: flushes what it still can and drops the
+     * cached balances. Whatever the flush could not write stays in the journal until the next
+     * {@link #acquire(long, long)}.
+     */
+    public void release() {
+        flushLock.lock();
+        try {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.warn("Could not flush balances at the end of leader epoch {}", epoch, e);
+            }
+            epoch = null;
+            invalidateAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes every dirty balance to the database, then drops the journal segments that the
+     * write has made redundant. Does nothing in cluster mode while this node is not the leader.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Long fencingEpoch = epoch;
+            if (clusterEnabled && fencingEpoch == null) {
+                return;
+            }
+            journal.rotate();
+            List<Path> sealed = journal.sealedSegments();
+
+            List<Long> userIds = new ArrayList<>(dirty);
+            dirty.removeAll(userIds);
+
+            Map<Long, Long> balances = new HashMap<>();
+            for (Long userId : userIds) {
+                Cell cell = cells.get(userId);
+                if (cell == null) {
+                    continue;
+                }
+                // Taking the lock waits for a mutation that was queued before the rotation.
+                cell.lock.lock();
+                try {
+                    balances.put(userId, cell.cents);
+                } finally {
+                    cell.lock.unlock();
+                }
+            }
+            // Read after the locks, so every payout journaled before the rotation is included.
+            List<Long> roundIds = new ArrayList<>(pendingPayouts);
+
+            try {
+                balanceJdbcRepository.writeBalances(balances, roundIds, fencingEpoch);
+            } catch (RuntimeException e) {
+                dirty.addAll(userIds);
+                throw e;
+            }
+            pendingPayouts.removeAll(roundIds);
+            journal.delete(sealed);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public static long toCents(BigDecimal amount) {
+        try {
+            return amount.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount must have at most two decimal places");
+        }
+    }
+
+    public static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // The journal record is queued under the cell locks, so records of the same user are written
+    // in the order their changes were made, but awaited after releasing them, so mutations
+    // queued meanwhile are forced together with it.
+    private Map<Long, Long> apply(long roundId, Map<Long, Long> deltas, boolean requireFunds) {
+        if (clusterEnabled && epoch == null) {
+            throw new NotLeaderException("This node does not own the balances");
+        }
+        Long[] userIds = deltas.keySet().toArray(new Long[0]);
+        Arrays.sort(userIds);
+        Cell[] locked = new Cell[userIds.length];
+        for (int i = 0; i < userIds.length; i++) {
+            locked[i] = cell(userIds[i]);
+        }
+
+        Map<Long, Long> result = new HashMap<>();
+        CompletableFuture<Void> written;
+        lock(locked);
+        try {
+            long[] ids = new long[userIds.length];
+            long[] balances = new long[userIds.length];
+            for (int i = 0; i < userIds.length; i++) {
+                ids[i] = userIds[i];
+                balances[i] = locked[i].cents + deltas.get(userIds[i]);
+                if (requireFunds && balances[i] < 0) {
+                    throw new InsufficientBalanceException("Insufficient balance");
+                }
+            }
+
+            dirty.addAll(deltas.keySet());
+            written = journal.append(roundId, ids, balances, ids.length);
+            if (roundId != BalanceJournal.NO_ROUND) {
+                pendingPayouts.add(roundId);
+            }
+
+            for (int i = 0; i < userIds.length; i++) {
+                locked[i].cents = balances[i];
+                result.put(userIds[i], balances[i]);
+            }
+        } finally {
+            unlock(locked);
+        }
+
+        try {
+            written.join();
+        } catch (CompletionException e) {
+            revert(roundId, userIds, locked, deltas);
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        return result;
+    }
+
+    // Takes back a change whose journal record was lost. The journal fails every record queued
+    // after it until the next flush rotates it, so those changes are taken back as well.
+    private void revert(long roundId, Long[] userIds, Cell[] locked, Map<Long, Long> deltas) {
+        lock(locked);
+        try {
+            for (int i = 0; i < userIds.length; i++) {
+                locked[i].cents -= deltas.get(userIds[i]);
+            }
+            dirty.addAll(deltas.keySet());
+            if (roundId != BalanceJournal.NO_ROUND) {
+                pendingPayouts.remove(roundId);
+            }
+        } finally {
+            unlock(locked);
+        }
+    }
+
+    private static void lock(Cell[] cells) {
+        for (Cell cell : cells) {
+            cell.lock.lock();
+        }
+    }
+
+    private static void unlock(Cell[] cells) {
+        for (Cell cell : cells) {
+            cell.lock.unlock();
+        }
+    }
+
+    private Cell cell(Long userId) {
+        return cells.computeIfAbsent(userId, id -> {
+            User user = userRepository.findById(id)
+                    .orElseThrow(() -> new UserNotFoundException("User not found"));
+            return new Cell(toCents(user.getBalance()));
+        });
+    }
+
+    // The next access reads the database again; another node may own the balances meanwhile.
+    private void invalidateAll() {
+        cells.clear();
+        dirty.clear();
+    }
+
+    private void recover(Long leaderEpoch) {
+        List<Path> pending = journal.sealedSegments();
+        if (pending.isEmpty()) {
+            return;
+        }
+        BalanceJournal.Replay replay = BalanceJournal.replay(pending);
+        log.info("Restoring {} balances and {} round payouts from {} journal segments",
+                replay.balances().size(), replay.creditedRounds().size(), pending.size());
+        balanceJdbcRepository.writeBalances(replay.balances(), replay.creditedRounds(), leaderEpoch);
+        journal.delete(pending);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Balance flush failed, will retry", e);
+        }
+    }
+
+    private static final class Cell {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long cents;
+
+        private Cell(long cents) {
+            this.cents = cents;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.example.roulette.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log for {@link BalanceCache}. Every record holds the absolute balances a
+ * mutation produced, so replaying the segments in order and keeping the last value per
+ * user restores the state the database had not seen yet. A record that pays out a round
+ * also carries the round's id, so replaying tells which rounds have been credited.
+ * <p>
+ * Record layout: {@code int count}, {@code long roundId} (0 if none), {@code count} pairs of
+ * {@code long userId, long cents}, then a CRC32 of the preceding bytes. A torn record at the
+ * end of a segment is ignored.
+ * <p>
+ * Appends are written by a single writer thread, which takes every record queued since its
+ * last write and forces them together, so concurrent mutations share one sync.
+ * <p>
+ * In cluster mode the journal also remembers the leader epoch that wrote it, so a later term
+ * can tell whether its segments are still the latest balances.
+ */
+class BalanceJournal implements Closeable {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("balances-(\\d+)\\.wal");
+    private static final String EPOCH_FILE = "leader-epoch";
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+    static final long NO_ROUND = 0;
+    private static final int ENTRY_BYTES = 2 * Long.BYTES;
+    private static final int CHECKSUM_BYTES = Integer.BYTES;
+
+    private final Path directory;
+    private final boolean fsync;
+    private final ReentrantLock queueLock = new ReentrantLock();
+    private final Condition recordQueued = queueLock.newCondition();
+    private final Thread writer;
+    private List<QueuedRecord> queue = new ArrayList<>();
+    private boolean closed;
+    private long segmentSequence;
+    private FileChannel channel;
+    // The write that failed since the last rotation, if any.
+    private UncheckedIOException failure;
+
+    BalanceJournal(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+            this.segmentSequence = segments().stream().mapToLong(BalanceJournal::sequenceOf).max().orElse(0);
+            openNextSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open balance journal in " + directory, e);
+        }
+        this.writer = Thread.ofPlatform().name("balance-journal").daemon().start(this::writeLoop);
+    }
+
+    /**
+     * Queues a record for the writer thread and returns a future that completes once the record
+     * is written, and forced if the journal syncs. Records are written in the order they are
+     * queued. If a write fails, the records queued behind it fail too until the next
+     * {@link #rotate()}, since the balances they hold may build on the lost change.
+     */
+    CompletableFuture<Void> append(long roundId, long[] userIds, long[] balances, int count) {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + count * ENTRY_BYTES + CHECKSUM_BYTES);
+        record.putInt(count);
+        record.putLong(roundId);
+        for (int i = 0; i < count; i++) {
+            record.putLong(userIds[i]);
+            record.putLong(balances[i]);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue());
+        record.flip();
+
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        queueLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Balance journal is closed");
+            }
+            queue.add(new QueuedRecord(record, written));
+            recordQueued.signal();
+        } finally {
+            queueLock.unlock();
+        }
+        return written;
+    }
+
+    /**
+     * Starts a new segment. Records appended before this call live in the segments returned by
+     * {@link #sealedSegments()} from now on.
+     */
+    synchronized void rotate() {
+        writeQueued();
+        failure = null;
+        try {
+            channel.close();
+            openNextSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rotate balance journal", e);
+        }
+    }
+
+    synchronized List<Path> sealedSegments() {
+        try {
+            return segments().stream().filter(segment -> sequenceOf(segment) < segmentSequence).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list balance journal segments", e);
+        }
+    }
+
+    void delete(List<Path> segments) {
+        for (Path segment : segments) {
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not delete balance journal segment " + segment, e);
+            }
+        }
+    }
+
+    /**
+     * The leader epoch recorded by {@link #setEpoch(long)}, or 0 if none was.
+     */
+    synchronized long epoch() {
+        Path file = directory.resolve(EPOCH_FILE);
+        try {
+            return Files.exists(file) ? Long.parseLong(Files.readString(file).trim()) : 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the balance journal epoch", e);
+        }
+    }
+
+    synchronized void setEpoch(long epoch) {
+        Path temporary = directory.resolve(EPOCH_FILE + ".tmp");
+        try {
+            Files.writeString(temporary, Long.toString(epoch));
+            Files.move(temporary, directory.resolve(EPOCH_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the balance journal epoch", e);
+        }
+    }
+
+    static Replay replay(List<Path> segments) {
+        Replay replay = new Replay(new HashMap<>(), new HashSet<>());
+        for (Path segment : segments) {
+            try {
+                replaySegment(ByteBuffer.wrap(Files.readAllBytes(segment)), replay);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read balance journal segment " + segment, e);
+            }
+        }
+        return replay;
+    }
+
+    /**
+     * Writes the records still queued and stops the writer thread.
+     */
+    @Override
+    public void close() throws IOException {
+        queueLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            recordQueued.signal();
+        } finally {
+            queueLock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the balance journal");
+        }
+        synchronized (this) {
+            channel.close();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            queueLock.lock();
+            try {
+                while (queue.isEmpty() && !closed) {
+                    recordQueued.awaitUninterruptibly();
+                }
+                if (queue.isEmpty()) {
+                    return;
+                }
+            } finally {
+                queueLock.unlock();
+            }
+            writeQueued();
+        }
+    }
+
+    // Writes every queued record with a single force, so concurrent appends share one sync.
+    private synchronized void writeQueued() {
+        List<QueuedRecord> batch;
+        queueLock.lock();
+        try {
+            batch = queue;
+            queue = new ArrayList<>();
+        } finally {
+            queueLock.unlock();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        if (failure == null) {
+            ByteBuffer[] records = new ByteBuffer[batch.size()];
+            long remaining = 0;
+            for (int i = 0; i < records.length; i++) {
+                records[i] = batch.get(i).record();
+                remaining += records[i].remaining();
+            }
+            try {
+                while (remaining > 0) {
+                    remaining -= channel.write(records);
+                }
+                if (fsync) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                failure = new UncheckedIOException("Could not write balance journal", e);
+            }
+        }
+
+        for (QueuedRecord queued : batch) {
+            if (failure == null) {
+                queued.written().complete(null);
+            } else {
+                queued.written().completeExceptionally(failure);
+            }
+        }
+    }
+
+    private static void replaySegment(ByteBuffer buffer, Replay replay) {
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int count = buffer.getInt();
+            long roundId = buffer.getLong();
+            if (count < 0 || count > (buffer.remaining() - CHECKSUM_BYTES) / ENTRY_BYTES) {
+                return;
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), start, HEADER_BYTES + count * ENTRY_BYTES);
+            int entriesStart = buffer.position();
+            buffer.position(entriesStart + count * ENTRY_BYTES);
+            if (buffer.getInt() != (int) crc.getValue()) {
+                return;
+            }
+
+            buffer.position(entriesStart);
+            for (int i = 0; i < count; i++) {
+                replay.balances().put(buffer.getLong(), buffer.getLong());
+            }
+            if (roundId != NO_ROUND) {
+                replay.creditedRounds().add(roundId);
+            }
+            buffer.position(buffer.position() + CHECKSUM_BYTES);
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentSequence++;
+        Path segment = directory.resolve(String.format("balances-%020d.wal", segmentSequence));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches()).forEach(segments::add);
+        }
+        segments.sort((a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)));
+        return segments;
+    }
+
+    private static long sequenceOf(Path segment) {
+        Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a balance journal segment: " + segment);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    /**
+     * The last balance of every user in the replayed segments, and the rounds they paid out.
+     */
+    record Replay(Map<Long, Long> balances, Set<Long> creditedRounds) {
+    }
+
+    private record QueuedRecord(ByteBuffer record, CompletableFuture<Void> written) {
+    }
+}
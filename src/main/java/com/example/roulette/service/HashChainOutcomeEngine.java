@@ -0,0 +1,143 @@
+package com.example.roulette.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provably fair outcomes from a SHA-256 hash chain. A chain starts from a random secret seed
+ * {@code s[n]}, with {@code s[i-1] = SHA-256("roulette-chain" || s[i])}; rounds use {@code s[1]},
+ * {@code s[2]}, ... in turn. A round publishes {@code SHA-256(seed)} when it is created and reveals
+ * the seed once it has finished. The chain link is prefixed so that it never equals a commitment:
+ * otherwise the hash published for the next round would be this round's seed.
+ * <p>
+ * To verify a round, check that {@code SHA-256(serverSeed) == serverSeedHash} and that
+ * {@code SHA-256("roulette-chain" || serverSeed)} is the previous round's seed, then take the
+ * first 52 bits of {@code HMAC-SHA256(key = serverSeed, message = "roulette")} as an unsigned
+ * number modulo 25: 24 is green, other even pockets red, odd pockets black. Seeds and hashes
+ * are lowercase hex. Cancelled rounds reveal their seed too, so the chain has no gaps.
+ * <p>
+ * Chains are built in the background, one ahead of the one being consumed, so drawing an
+ * outcome is a queue poll.
+ */
+@Component
+@ConditionalOnProperty(name = "roulette.outcome.mode", havingValue = "provably-fair")
+public class HashChainOutcomeEngine implements OutcomeEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(HashChainOutcomeEngine.class);
+
+    private static final byte[] MESSAGE = "roulette".getBytes(StandardCharsets.US_ASCII);
+    static final byte[] CHAIN_PREFIX = "roulette-chain".getBytes(StandardCharsets.US_ASCII);
+    private static final int SEED_BYTES = 32;
+    private static final long NEXT_TIMEOUT_SECONDS = 5;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final int chainLength;
+    private final BlockingQueue<Outcome> outcomes;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final ExecutorService generator;
+    private volatile Exception generatorFailure;
+
+    public HashChainOutcomeEngine(@Value("${roulette.outcome.chain-length:10000}") int chainLength) {
+        this.chainLength = chainLength;
+        this.outcomes = new ArrayBlockingQueue<>(chainLength);
+        this.generator = Executors.newSingleThreadExecutor();
+    }
+
+    @PostConstruct
+    void start() {
+        generator.execute(this::generate);
+    }
+
+    @PreDestroy
+    void stop() {
+        generator.shutdownNow();
+    }
+
+    /**
+     * Takes the next outcome of the chain. Fails instead of waiting indefinitely when the
+     * generator has stopped or falls behind, so the caller can retry the round later.
+     */
+    @Override
+    public Outcome next() {
+        try {
+            Outcome outcome = outcomes.poll(NEXT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (outcome == null) {
+                Exception failure = generatorFailure;
+                throw failure != null
+                        ? new IllegalStateException("The outcome hash chain generator has failed", failure)
+                        : new IllegalStateException("No outcome became available within " + NEXT_TIMEOUT_SECONDS + " seconds");
+            }
+            return outcome;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the next outcome", e);
+        }
+    }
+
+    private void generate() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                for (Outcome outcome : buildChain()) {
+                    outcomes.put(outcome);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (GeneralSecurityException | RuntimeException e) {
+            generatorFailure = e;
+            log.error("Could not build an outcome hash chain", e);
+        }
+    }
+
+    List<Outcome> buildChain() throws GeneralSecurityException {
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        Mac hmac = Mac.getInstance("HmacSHA256");
+
+        byte[][] seeds = new byte[chainLength + 1][];
+        seeds[chainLength] = new byte[SEED_BYTES];
+        secureRandom.nextBytes(seeds[chainLength]);
+        for (int i = chainLength; i > 0; i--) {
+            sha256.update(CHAIN_PREFIX);
+            seeds[i - 1] = sha256.digest(seeds[i]);
+        }
+        log.info("Built an outcome hash chain for {} rounds, anchored at {}", chainLength, HEX.formatHex(seeds[0]));
+
+        List<Outcome> chain = new ArrayList<>(chainLength);
+        for (int i = 1; i <= chainLength; i++) {
+            hmac.init(new SecretKeySpec(seeds[i], "HmacSHA256"));
+            int slot = slot(hmac.doFinal(MESSAGE));
+            String commitment = HEX.formatHex(sha256.digest(seeds[i]));
+            chain.add(new Outcome(Wheel.colorOf(slot), HEX.formatHex(seeds[i]), commitment));
+        }
+        return chain;
+    }
+
+    static int slot(byte[] digest) {
+        long value = 0;
+        for (int i = 0; i < 7; i++) {
+            value = (value << 8) | (digest[i] & 0xff);
+        }
+        // 56 bits read, keep the first 52.
+        return (int) ((value >>> 4) % Wheel.SLOTS);
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.roulette.service;
+
+import com.example.roulette.dto.LeaderboardDTO;
+import com.example.roulette.dto.LeaderboardEntryDTO;
+import com.example.roulette.dto.RoundEventDTO;
+import com.example.roulette.dto.RoundEventType;
+import com.example.roulette.model.Bet;
+import com.example.roulette.model.BetStatus;
+import com.example.roulette.model.LeaderboardScore;
+import com.example.roulette.model.Round;
+import com.example.roulette.model.RoundStatus;
+import com.example.roulette.repository.BetRepository;
+import com.example.roulette.repository.LeaderboardJdbcRepository;
+import com.example.roulette.repository.LeaderboardScoreRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top winners by net result, for the current day and all time. The {@link RoundEngine} applies
+ * each settled round, which moves only the users who bet in it; a changed top list is pushed
+ * as a {@code LEADERBOARD} event.
+ * <p>
+ * Daily scores are checkpointed to {@code leaderboard_scores} at a fixed interval. A rebuild
+ * loads the checkpoint and replays the rounds started after it from the bets, so nothing
+ * settled is lost to a crash between checkpoints. A day is the start date of the round.
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final LeaderboardScoreRepository leaderboardScoreRepository;
+    private final LeaderboardJdbcRepository leaderboardJdbcRepository;
+    private final BetRepository betRepository;
+    private final RoundEventPublisher eventPublisher;
+    private final ObjectProvider<RoundEngine> roundEngine;
+    private final int size;
+    private final long checkpointIntervalMillis;
+    private final ScheduledExecutorService checkpointer;
+    private final Ranking allTime = new Ranking();
+    private final Ranking daily = new Ranking();
+    // Daily scores changed since the last checkpoint.
+    private final Map<LeaderboardScore.Key, LeaderboardScore> dirty = new HashMap<>();
+    private LocalDate day = LocalDate.now();
+    // Start time of the latest round applied. Round ids are allocated in blocks per node, so
+    // unlike start times they do not increase across leaders.
+    private LocalDateTime appliedThrough = HISTORY_START;
+    private volatile LeaderboardDTO leaderboard;
+
+    public LeaderboardService(LeaderboardScoreRepository leaderboardScoreRepository,
+                              LeaderboardJdbcRepository leaderboardJdbcRepository,
+                              BetRepository betRepository,
+                              RoundEventPublisher eventPublisher,
+                              ObjectProvider<RoundEngine> roundEngine,
+                              @Value("${roulette.leaderboard.size:10}") int size,
+                              @Value("${roulette.leaderboard.checkpoint-interval-ms:60000}") long checkpointIntervalMillis) {
+        this.leaderboardScoreRepository = leaderboardScoreRepository;
+        this.leaderboardJdbcRepository = leaderboardJdbcRepository;
+        this.betRepository = betRepository;
+        this.eventPublisher = eventPublisher;
+        this.roundEngine = roundEngine;
+        this.size = size;
+        this.checkpointIntervalMillis = checkpointIntervalMillis;
+        this.checkpointer = Executors.newSingleThreadScheduledExecutor();
+        this.leaderboard = build();
+    }
+
+    @PostConstruct
+    void start() {
+        checkpointer.scheduleWithFixedDelay(this::checkpointQuietly, checkpointIntervalMillis, checkpointIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        checkpointer.shutdown();
+    }
+
+    public LeaderboardDTO getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Replaces the scores with the checkpoint plus every round started after it.
+     */
+    public synchronized void rebuild() {
+        allTime.clear();
+        daily.clear();
+        dirty.clear();
+        day = LocalDate.now();
+
+        for (LeaderboardScoreRepository.UserTotal total : leaderboardScoreRepository.sumByUser()) {
+            allTime.add(total.getUserId(), total.getNetCents());
+        }
+        Map<LocalDate, Map<Long, Long>> days = new HashMap<>();
+        days.put(day, loadDay(day));
+
+        appliedThrough = leaderboardScoreRepository.findAppliedThrough().orElse(HISTORY_START);
+        List<BetRepository.RoundNet> replayed = betRepository.sumNetByRoundStartedAfter(appliedThrough, RoundStatus.FINISHED, BetStatus.WON);
+        for (BetRepository.RoundNet net : replayed) {
+            LocalDate netDay = net.getStartTime().toLocalDate();
+            long cents = BalanceCache.toCents(net.getNet());
+            allTime.add(net.getUserId(), cents);
+            long dayScore = days.computeIfAbsent(netDay, this::loadDay).merge(net.getUserId(), cents, Long::sum);
+            markDirty(netDay, net.getUserId(), dayScore);
+            appliedThrough = later(appliedThrough, net.getStartTime());
+        }
+        days.get(day).forEach(daily::add);
+
+        if (!replayed.isEmpty()) {
+            log.info("Replayed {} user results after the leaderboard checkpoint", replayed.size());
+        }
+        leaderboard = build();
+    }
+
+    /**
+     * Applies the results of a settled round and pushes the leaderboard if its top changed.
+     */
+    public synchronized void apply(Round round, List<Bet> settledBets) {
+        LocalDate roundDay = round.getStartTime().toLocalDate();
+        if (roundDay.isAfter(day)) {
+            day = roundDay;
+            daily.clear();
+        }
+
+        Map<Long, Long> nets = new HashMap<>();
+        for (Bet bet : settledBets) {
+            long net = BalanceCache.toCents(bet.getWinnings());
+            if (bet.getStatus() == BetStatus.WON) {
+                net -= BalanceCache.toCents(bet.getAmount());
+            }
+            nets.merge(bet.getUser().getId(), net, Long::sum);
+        }
+        nets.forEach((userId, net) -> {
+            allTime.add(userId, net);
+            markDirty(roundDay, userId, daily.add(userId, net));
+        });
+        appliedThrough = later(appliedThrough, round.getStartTime());
+
+        LeaderboardDTO previous = leaderboard;
+        leaderboard = build();
+        if (!sameTop(previous, leaderboard)) {
+            RoundEventDTO event = new RoundEventDTO();
+            event.setType(RoundEventType.LEADERBOARD);
+            event.setRoundId(round.getId());
+            event.setLeaderboard(leaderboard);
+            eventPublisher.publish(event);
+        }
+    }
+
+    private Map<Long, Long> loadDay(LocalDate scoreDay) {
+        Map<Long, Long> scores = new HashMap<>();
+        for (LeaderboardScore score : leaderboardScoreRepository.findByDay(scoreDay)) {
+            scores.put(score.getUserId(), score.getNetCents());
+        }
+        return scores;
+    }
+
+    private void markDirty(LocalDate scoreDay, long userId, long netCents) {
+        // The watermark is set when the score is checkpointed.
+        dirty.put(new LeaderboardScore.Key(scoreDay, userId), new LeaderboardScore(scoreDay, userId, netCents, null));
+    }
+
+    private void checkpoint() {
+        // Only the node running rounds has current scores; in cluster mode that is the leader.
+        if (!roundEngine.getObject().isActive()) {
+            return;
+        }
+
+        List<LeaderboardScore> scores;
+        synchronized (this) {
+            if (dirty.isEmpty()) {
+                return;
+            }
+            scores = new ArrayList<>(dirty.size());
+            for (LeaderboardScore score : dirty.values()) {
+                // Every row written records the same watermark, so a rebuild replays from here.
+                score.setAppliedThrough(appliedThrough);
+                scores.add(score);
+            }
+            dirty.clear();
+        }
+
+        try {
+            leaderboardJdbcRepository.upsertScores(scores);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                for (LeaderboardScore score : scores) {
+                    dirty.putIfAbsent(new LeaderboardScore.Key(score.getDay(), score.getUserId()), score);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return b.isAfter(a) ? b : a;
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (RuntimeException e) {
+            log.warn("Leaderboard checkpoint failed, will retry", e);
+        }
+    }
+
+    private LeaderboardDTO build() {
+        return new LeaderboardDTO(day, entries(daily.top(size)), entries(allTime.top(size)));
+    }
+
+    private static List<LeaderboardEntryDTO> entries(List<Ranking.Score> scores) {
+        List<LeaderboardEntryDTO> entries = new ArrayList<>(scores.size());
+        for (Ranking.Score score : scores) {
+            entries.add(new LeaderboardEntryDTO(score.userId(), BalanceCache.toAmount(score.cents())));
+        }
+        return List.copyOf(entries);
+    }
+
+    private static boolean sameTop(LeaderboardDTO previous, LeaderboardDTO current) {
+        return previous.getDay().equals(current.getDay())
+                && sameEntries(previous.getDaily(), current.getDaily())
+                && sameEntries(previous.getAllTime(), current.getAllTime());
+    }
+
+    private static boolean sameEntries(List<LeaderboardEntryDTO> previous, List<LeaderboardEntryDTO> current) {
+        if (previous.size() != current.size()) {
+            return false;
+        }
+        for (int i = 0; i < previous.size(); i++) {
+            if (!previous.get(i).getUserId().equals(current.get(i).getUserId())
+                    || previous.get(i).getNet().compareTo(current.get(i).getNet()) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
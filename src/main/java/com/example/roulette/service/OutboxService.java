@@ -0,0 +1,166 @@
+package com.example.roulette.service;
+
+import com.example.roulette.dto.RoundEventDTO;
+import com.example.roulette.dto.RoundEventType;
+import com.example.roulette.model.OutboxEvent;
+import com.example.roulette.model.RoundStatus;
+import com.example.roulette.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transactional outbox for round events. {@link #append(List)} stores events in the caller's
+ * transaction, so an event exists exactly when the change it describes was committed.
+ * <p>
+ * Round snapshots are stored as the round id and new status only, and the relay builds the
+ * snapshot with all bets once, when it publishes the event.
+ * <p>
+ * The relay drains the table in id order and hands each event to the
+ * {@link RoundEventPublisher}. A commit wakes it at once; the poll interval only matters
+ * after a crash or a failed drain. Delivery is at-least-once: a relay that dies after
+ * publishing but before deleting publishes the batch again.
+ */
+@Service
+public class OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RoundEventPublisher eventPublisher;
+    private final RoundEventCodec roundEventCodec;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<RoundEngine> roundEngine;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final ScheduledExecutorService relay;
+    private final AtomicBoolean wakeScheduled = new AtomicBoolean();
+
+    public OutboxService(OutboxEventRepository outboxEventRepository,
+                         RoundEventPublisher eventPublisher,
+                         RoundEventCodec roundEventCodec,
+                         TransactionTemplate transactionTemplate,
+                         ObjectProvider<RoundEngine> roundEngine,
+                         @Value("${roulette.outbox.batch-size:500}") int batchSize,
+                         @Value("${roulette.outbox.poll-interval-ms:1000}") long pollIntervalMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.roundEventCodec = roundEventCodec;
+        this.transactionTemplate = transactionTemplate;
+        this.roundEngine = roundEngine;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.relay = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @PostConstruct
+    void start() {
+        relay.scheduleWithFixedDelay(this::drainQuietly, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        relay.shutdown();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(List<RoundEventDTO> events) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> rows = new ArrayList<>(events.size());
+        for (RoundEventDTO event : events) {
+            rows.add(new OutboxEvent(event.getType().name(), event.getRoundId(), roundEventCodec.encode(event), now));
+        }
+        save(rows);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendSnapshot(Long roundId, RoundStatus status) {
+        save(List.of(new OutboxEvent(RoundEventType.SNAPSHOT.name(), roundId, status.name(), LocalDateTime.now())));
+    }
+
+    private void save(List<OutboxEvent> rows) {
+        outboxEventRepository.saveAll(rows);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wake();
+            }
+        });
+    }
+
+    private void wake() {
+        if (wakeScheduled.compareAndSet(false, true)) {
+            relay.execute(() -> {
+                wakeScheduled.set(false);
+                drainQuietly();
+            });
+        }
+    }
+
+    private void drain() {
+        // Only the node running rounds relays; in cluster mode that is the leader, whose
+        // published events also reach the other nodes.
+        if (!roundEngine.getObject().isActive()) {
+            return;
+        }
+
+        int drained;
+        do {
+            drained = transactionTemplate.execute(status -> {
+                List<OutboxEvent> batch = outboxEventRepository.claimBatch(batchSize);
+                for (OutboxEvent row : batch) {
+                    RoundEventDTO event;
+                    try {
+                        event = decode(row);
+                    } catch (IllegalArgumentException e) {
+                        // Deleted with the batch, so one bad row cannot block the relay.
+                        log.error("Dropping malformed outbox event {}", row.getId(), e);
+                        continue;
+                    }
+                    if (event != null) {
+                        eventPublisher.publish(event);
+                    }
+                }
+                outboxEventRepository.deleteAllInBatch(batch);
+                return batch.size();
+            });
+        } while (drained == batchSize);
+    }
+
+    private RoundEventDTO decode(OutboxEvent row) {
+        if (RoundEventType.SNAPSHOT.name().equals(row.getEventType())) {
+            RoundEventDTO event = roundEngine.getObject().relayedSnapshot(row.getRoundId(), RoundStatus.valueOf(row.getPayload()));
+            if (event == null) {
+                log.warn("Skipping the snapshot of round {}, which no longer exists", row.getRoundId());
+            }
+            return event;
+        }
+        return roundEventCodec.decode(row.getPayload());
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, will retry", e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.roulette.service;
+
+import com.example.roulette.model.Color;
+
+/**
+ * The result of a future round. {@code serverSeedHash} is published when the round is created
+ * and {@code serverSeed} once it has finished; both are {@code null} for engines that do not
+ * commit to their outcomes.
+ */
+public record Outcome(Color color, String serverSeed, String serverSeedHash) {
+}
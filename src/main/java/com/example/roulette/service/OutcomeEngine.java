@@ -0,0 +1,10 @@
+package com.example.roulette.service;
+
+/**
+ * Source of round outcomes. The {@link RoundEngine} draws one when it creates a round and keeps
+ * it secret until the round finishes. Select an implementation with {@code roulette.outcome.mode}.
+ */
+public interface OutcomeEngine {
+
+    Outcome next();
+}
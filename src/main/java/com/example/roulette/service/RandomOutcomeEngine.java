@@ -0,0 +1,28 @@
+package com.example.roulette.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws a pocket uniformly with the calling thread's generator. Outcomes are precomputed per
+ * pocket, so a draw allocates nothing and threads never contend on a shared {@code Random}.
+ */
+@Component
+@ConditionalOnProperty(name = "roulette.outcome.mode", havingValue = "random", matchIfMissing = true)
+public class RandomOutcomeEngine implements OutcomeEngine {
+
+    private static final Outcome[] POCKETS = new Outcome[Wheel.SLOTS];
+
+    static {
+        for (int slot = 0; slot < Wheel.SLOTS; slot++) {
+            POCKETS[slot] = new Outcome(Wheel.colorOf(slot), null, null);
+        }
+    }
+
+    @Override
+    public Outcome next() {
+        return POCKETS[ThreadLocalRandom.current().nextInt(Wheel.SLOTS)];
+    }
+}
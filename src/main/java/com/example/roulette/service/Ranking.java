@@ -0,0 +1,58 @@
+package com.example.roulette.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Net result per user in cents, kept sorted best first in a skip list next to the per-user
+ * score map. An update replaces one entry in O(log n), and the top entries are the head of the
+ * list. Updates must be serialized by the owner; readers may walk the list concurrently.
+ */
+final class Ranking {
+
+    private static final Comparator<Score> BEST_FIRST = Comparator.comparingLong(Score::cents).reversed()
+            .thenComparingLong(Score::userId);
+
+    private final Map<Long, Long> scores = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Score> ordered = new ConcurrentSkipListSet<>(BEST_FIRST);
+
+    /**
+     * Adds {@code cents} to the user's score and returns the new score.
+     */
+    long add(long userId, long cents) {
+        Long previous = scores.get(userId);
+        long updated = previous == null ? cents : previous + cents;
+        if (previous != null) {
+            ordered.remove(new Score(userId, previous));
+        }
+        scores.put(userId, updated);
+        ordered.add(new Score(userId, updated));
+        return updated;
+    }
+
+    /**
+     * The best scores above zero, at most {@code size} of them.
+     */
+    List<Score> top(int size) {
+        List<Score> top = new ArrayList<>(size);
+        for (Score score : ordered) {
+            if (top.size() == size || score.cents() <= 0) {
+                break;
+            }
+            top.add(score);
+        }
+        return top;
+    }
+
+    void clear() {
+        scores.clear();
+        ordered.clear();
+    }
+
+    record Score(long userId, long cents) {
+    }
+}
@@ -2,228 +2,247 @@ package com.example.roulette.service;
 
 import com.example.roulette.dto.BetRequestDTO;
 import com.example.roulette.dto.BetResponseDTO;
+import com.example.roulette.dto.CursorPageDTO;
+import com.example.roulette.dto.RoundEventDTO;
+import com.example.roulette.dto.RoundEventType;
 import com.example.roulette.dto.RoundResponseDTO;
+import com.example.roulette.dto.RoundSnapshot;
+import com.example.roulette.exception.InsufficientBalanceException;
+import com.example.roulette.exception.InvalidBetException;
+import com.example.roulette.exception.RoundClosedException;
+import com.example.roulette.exception.RoundNotFoundException;
 import com.example.roulette.exception.UserNotFoundException;
 import com.example.roulette.model.*;
 import com.example.roulette.repository.BetRepository;
 import com.example.roulette.repository.RoundRepository;
 import com.example.roulette.repository.UserRepository;
-import com.example.roulette.websocket.WebSocketHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 @Service
 public class RouletteService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BETS_PER_REQUEST = 100;
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime HISTORY_END = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     private final BetRepository betRepository;
     private final RoundRepository roundRepository;
     private final UserRepository userRepository;
-    private final WebSocketHandler webSocketHandler;
-    private final Random random;
-    private final ScheduledExecutorService scheduler;
-    private Round currentRound;
-
-    public RouletteService(BetRepository betRepository, RoundRepository roundRepository, UserRepository userRepository, WebSocketHandler webSocketHandler) {
+    private final RoundEngine roundEngine;
+    private final BalanceCache balanceCache;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Timer prepareTimer;
+    private final Timer debitTimer;
+    private final Timer insertTimer;
+    private final Timer ledgerTimer;
+    private final Counter betsPlaced;
+    private final Counter betsRejected;
+
+    public RouletteService(BetRepository betRepository, RoundRepository roundRepository, UserRepository userRepository, RoundEngine roundEngine, BalanceCache balanceCache, OutboxService outboxService, TransactionTemplate transactionTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
         this.betRepository = betRepository;
         this.roundRepository = roundRepository;
         this.userRepository = userRepository;
-        this.webSocketHandler = webSocketHandler;
-        this.random = new Random();
-        this.scheduler = Executors.newScheduledThreadPool(1);
+        this.roundEngine = roundEngine;
+        this.balanceCache = balanceCache;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        // The debit phase includes loading the user's balance when it is not cached yet.
+        this.prepareTimer = betPhaseTimer("prepare", meterRegistry);
+        this.debitTimer = betPhaseTimer("debit", meterRegistry);
+        this.insertTimer = betPhaseTimer("insert", meterRegistry);
+        this.ledgerTimer = betPhaseTimer("ledger", meterRegistry);
+        this.betsPlaced = Counter.builder("roulette.bets.placed")
+                .description("Bets accepted into a round")
+                .register(meterRegistry);
+        this.betsRejected = Counter.builder("roulette.bets.rejected")
+                .description("Bets refused because no round was open or a balance check failed")
+                .register(meterRegistry);
     }
 
-    private void startRound() {
-        currentRound = new Round();
-        currentRound.setStatus(RoundStatus.WAITING);
-        currentRound.setStartTime(LocalDateTime.now());
-        currentRound = roundRepository.save(currentRound);
-
-        scheduler.schedule(this::startInProgress, 30, TimeUnit.SECONDS);
-
-        scheduler.scheduleAtFixedRate(() -> {
-            long elapsedTime = (System.currentTimeMillis() - currentRound.getStartTime().toInstant(ZoneOffset.UTC).toEpochMilli()) / 1000;
-            long remainingTime = 30 - elapsedTime;
-            if (remainingTime <= 0) {
-                return;
-            }
-
-            RoundResponseDTO roundResponse = createRoundResponse(currentRound);
-            roundResponse.setTimeRemaining(remainingTime);
-            webSocketHandler.notifyClients(roundResponse);
-
-        }, 0, 10, TimeUnit.SECONDS);
+    private static Timer betPhaseTimer(String phase, MeterRegistry meterRegistry) {
+        return Timer.builder("roulette.bet.phase")
+                .description("Time spent in one phase of placing a bet request")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
-    private void startInProgress() {
-        if (currentRound == null) {
-            return;
-        }
-
-        currentRound.setStatus(RoundStatus.IN_PROGRESS);
-        roundRepository.save(currentRound);
-
-        RoundResponseDTO roundResponse = createRoundResponse(currentRound);
-        webSocketHandler.notifyClients(roundResponse);
-
-        scheduler.schedule(this::finishRound, 5, TimeUnit.SECONDS);
+    public BetResponseDTO placeBet(BetRequestDTO betRequest) {
+        return placeBets(List.of(betRequest)).get(0);
     }
 
-    public BetResponseDTO placeBet(BetRequestDTO betRequest) {
-        if (currentRound == null || currentRound.getStatus() != RoundStatus.WAITING) {
-            startRound();
+    /**
+     * Places all bets in the current round or none of them: the combined stakes are debited in
+     * one step, and the bets are inserted in one transaction together with their outbox events.
+     */
+    public List<BetResponseDTO> placeBets(List<BetRequestDTO> betRequests) {
+        if (betRequests.isEmpty() || betRequests.size() > MAX_BETS_PER_REQUEST) {
+            throw new InvalidBetException("A request must contain between 1 and " + MAX_BETS_PER_REQUEST + " bets");
         }
 
-        User user = userRepository.findById(betRequest.getUserId())
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-
-        if (user.getBalance().compareTo(betRequest.getAmount()) < 0) {
-            throw new IllegalArgumentException("Insufficient balance");
+        Map<Long, Long> stakes = new HashMap<>();
+        for (BetRequestDTO betRequest : betRequests) {
+            // A zero or negative stake would offset the other stakes of the same user.
+            if (betRequest.getUserId() == null || betRequest.getColor() == null
+                    || betRequest.getAmount() == null || betRequest.getAmount().signum() <= 0) {
+                throw new InvalidBetException("Every bet needs a user, a color and a positive amount");
+            }
+            if (betRequest.getAmount().stripTrailingZeros().scale() > 2) {
+                throw new InvalidBetException("Amount must have at most two decimal places");
+            }
+            stakes.merge(betRequest.getUserId(), BalanceCache.toCents(betRequest.getAmount()), Long::sum);
         }
 
-        user.setBalance(user.getBalance().subtract(betRequest.getAmount()));
-        userRepository.save(user);
-
-        Bet bet = new Bet();
-        bet.setAmount(betRequest.getAmount());
-        bet.setColor(betRequest.getColor());
-        bet.setRound(currentRound);
-        bet.setStatus(BetStatus.PENDING);
-        bet.setUser(user);
-        bet.setTimestamp(LocalDateTime.now());
-        bet = betRepository.save(bet);
-
-        BetResponseDTO betResponse = new BetResponseDTO();
-        betResponse.setId(bet.getId());
-        betResponse.setUserId(bet.getUser().getId());
-        betResponse.setAmount(bet.getAmount());
-        betResponse.setColor(bet.getColor());
-        betResponse.setStatus(bet.getStatus());
-        betResponse.setTimestamp(bet.getTimestamp());
-
-        RoundResponseDTO roundResponse = createRoundResponse(currentRound);
-        roundResponse.setBets(processBets(betRepository.findByRound(currentRound)));
-        webSocketHandler.notifyClients(roundResponse);
-
-        return betResponse;
-    }
-
-    private void finishRound() {
-        if (currentRound == null) {
-            return;
+        long started = System.nanoTime();
+        RoundState open;
+        try {
+            open = roundEngine.enter();
+        } catch (RoundClosedException e) {
+            betsRejected.increment(betRequests.size());
+            throw e;
         }
+        List<BetResponseDTO> betResponses = new ArrayList<>(betRequests.size());
+        try {
+            LocalDateTime timestamp = LocalDateTime.now();
+            List<Bet> bets = new ArrayList<>(betRequests.size());
+            for (BetRequestDTO betRequest : betRequests) {
+                Bet bet = new Bet();
+                bet.setAmount(betRequest.getAmount());
+                bet.setColor(betRequest.getColor());
+                bet.setRound(open.getRound());
+                bet.setStatus(BetStatus.PENDING);
+                bet.setUser(userRepository.getReferenceById(betRequest.getUserId()));
+                bet.setTimestamp(timestamp);
+                bets.add(bet);
+            }
+            started = record(prepareTimer, started);
+
+            try {
+                balanceCache.debitAll(stakes);
+            } catch (InsufficientBalanceException e) {
+                betsRejected.increment(betRequests.size());
+                throw new InvalidBetException(e.getMessage());
+            } catch (RuntimeException e) {
+                betsRejected.increment(betRequests.size());
+                throw e;
+            }
+            started = record(debitTimer, started);
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<RoundEventDTO> events = new ArrayList<>(bets.size());
+                    for (Bet bet : betRepository.saveAll(bets)) {
+                        BetResponseDTO betResponse = RoundLedger.toResponse(bet);
+                        betResponses.add(betResponse);
+                        events.add(betPlacedEvent(betResponse));
+                    }
+                    outboxService.append(events);
+                });
+            } catch (RuntimeException e) {
+                balanceCache.creditAll(stakes);
+                throw e;
+            }
+            started = record(insertTimer, started);
 
-        currentRound.setStatus(RoundStatus.FINISHED);
-        currentRound.setWinningColor(spinRoulette());
-        roundRepository.save(currentRound);
-
-        List<Bet> bets = betRepository.findByRound(currentRound);
-        calculateWinnings(bets, currentRound.getWinningColor());
+            for (int i = 0; i < bets.size(); i++) {
+                open.getLedger().append(bets.get(i), betResponses.get(i));
+            }
+            record(ledgerTimer, started);
+        } finally {
+            open.getLedger().exit();
+        }
 
-        List<BetResponseDTO> betResponses = processBets(bets);
+        betsPlaced.increment(betResponses.size());
+        return betResponses;
+    }
 
-        RoundResponseDTO roundResponse = createRoundResponse(currentRound);
-        roundResponse.setBets(betResponses);
+    private static long record(Timer timer, long started) {
+        long now = System.nanoTime();
+        timer.record(now - started, TimeUnit.NANOSECONDS);
+        return now;
+    }
 
-        webSocketHandler.notifyClients(roundResponse);
+    private static RoundEventDTO betPlacedEvent(BetResponseDTO betResponse) {
+        RoundEventDTO betPlaced = new RoundEventDTO();
+        betPlaced.setType(RoundEventType.BET_PLACED);
+        betPlaced.setRoundId(betResponse.getRoundId());
+        betPlaced.setBet(betResponse);
+        return betPlaced;
+    }
 
-        currentRound = null;
+    public Optional<RoundSnapshot> getCurrentRoundSnapshot() {
+        return roundEngine.getCurrentRoundSnapshot();
     }
 
-    private List<BetResponseDTO> processBets(List<Bet> bets) {
-        return bets.stream().map(bet -> {
-            BetResponseDTO betResponse = new BetResponseDTO();
-            betResponse.setId(bet.getId());
-            betResponse.setUserId(bet.getUser().getId());
-            betResponse.setAmount(bet.getAmount());
-            betResponse.setColor(bet.getColor());
-            betResponse.setStatus(bet.getStatus());
-            betResponse.setTimestamp(bet.getTimestamp());
-            betResponse.setRoundId(bet.getRound().getId());
-            betResponse.setWinnings(bet.getWinnings());
-            return betResponse;
-        }).toList();
+    public RoundResponseDTO getRoundById(Long roundId) {
+        return roundRepository.findResponseById(roundId)
+                .orElseThrow(() -> new RoundNotFoundException("Round not found"));
     }
 
-    private Color spinRoulette() {
-        List<Color> colors = new ArrayList<>();
-        for (int i = 0; i < 12; i++) {
-            colors.add(Color.RED);
-            colors.add(Color.BLACK);
-        }
-        colors.add(Color.GREEN);
-        return colors.get(random.nextInt(colors.size()));
+    public CursorPageDTO<RoundResponseDTO> getRounds(Long after, int limit, RoundStatus status, LocalDateTime from, LocalDateTime to) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        List<RoundResponseDTO> rounds = roundRepository.findPageAfter(
+                after == null ? 0 : after, statuses(status), from == null ? HISTORY_START : from, to == null ? HISTORY_END : to,
+                PageRequest.ofSize(pageSize));
+        Long nextCursor = rounds.size() == pageSize ? rounds.get(rounds.size() - 1).getId() : null;
+        return new CursorPageDTO<>(rounds, nextCursor);
     }
 
-    private void calculateWinnings(List<Bet> bets, Color winningColor) {
-        for (Bet bet : bets) {
-            User user = bet.getUser();
-            BigDecimal winnings = BigDecimal.ZERO;
-
-            if (bet.getColor() == winningColor) {
-                bet.setStatus(BetStatus.WON);
-                if (winningColor == Color.GREEN) {
-                    winnings = bet.getAmount().multiply(BigDecimal.valueOf(14));
-                } else {
-                    winnings = bet.getAmount().multiply(BigDecimal.valueOf(2));
-                }
-            } else {
-                bet.setStatus(BetStatus.LOST);
-                winnings = bet.getAmount().negate();
+    /**
+     * Writes every matching round as one JSON line. Rows are read through a database cursor and
+     * mapped straight to DTOs, so memory use does not grow with the size of the history.
+     */
+    @Transactional(readOnly = true)
+    public void streamRounds(Long after, RoundStatus status, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        try (Stream<RoundResponseDTO> rounds = roundRepository.streamAfter(
+                after == null ? 0 : after, statuses(status), from == null ? HISTORY_START : from, to == null ? HISTORY_END : to)) {
+            Iterator<RoundResponseDTO> iterator = rounds.iterator();
+            while (iterator.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                out.write('\n');
             }
-
-            bet.setWinnings(winnings);
-            user.setBalance(user.getBalance().add(winnings));
-            userRepository.save(user);
-            betRepository.save(bet);
         }
+        out.flush();
     }
 
-    private RoundResponseDTO createRoundResponse(Round round) {
-        RoundResponseDTO roundResponse = new RoundResponseDTO();
-        roundResponse.setId(round.getId());
-        roundResponse.setWinningColor(round.getWinningColor());
-        roundResponse.setStatus(round.getStatus());
-        roundResponse.setBets(new ArrayList<>());
-        return roundResponse;
-    }
-
-    public RoundResponseDTO getRoundById(Long roundId) {
-        Round round = roundRepository.findById(roundId)
-                .orElseThrow(() -> new IllegalArgumentException("Round not found"));
-        return createRoundResponse(round);
+    private static Collection<RoundStatus> statuses(RoundStatus status) {
+        return status == null ? EnumSet.allOf(RoundStatus.class) : EnumSet.of(status);
     }
 
-    public List<RoundResponseDTO> getAllRounds() {
-        List<Round> rounds = roundRepository.findAll();
-        return rounds.stream().map(this::createRoundResponse).toList();
-    }
+    public CursorPageDTO<BetResponseDTO> getBetsByUserId(Long userId, Long before, int limit) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
 
-    public List<BetResponseDTO> getBetsByUserId(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-
-        List<Bet> bets = betRepository.findByUser(user);
-
-        return bets.stream().map(bet -> {
-            BetResponseDTO betResponse = new BetResponseDTO();
-            betResponse.setId(bet.getId());
-            betResponse.setUserId(bet.getUser().getId());
-            betResponse.setAmount(bet.getAmount());
-            betResponse.setColor(bet.getColor());
-            betResponse.setStatus(bet.getStatus());
-            betResponse.setTimestamp(bet.getTimestamp());
-            betResponse.setRoundId(bet.getRound().getId());
-            betResponse.setWinnings(bet.getWinnings());
-            return betResponse;
-        }).toList();
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        List<BetResponseDTO> bets = betRepository.findPageByUserBefore(
+                userId, before == null ? Long.MAX_VALUE : before, PageRequest.ofSize(pageSize));
+        Long nextCursor = bets.size() == pageSize ? bets.get(bets.size() - 1).getId() : null;
+        return new CursorPageDTO<>(bets, nextCursor);
     }
 }
\ No newline at end of file
@@ -0,0 +1,497 @@
+package com.example.roulette.service;
+
+import com.example.roulette.dto.RoundEventDTO;
+import com.example.roulette.dto.RoundEventType;
+import com.example.roulette.dto.RoundResponseDTO;
+import com.example.roulette.dto.RoundSnapshot;
+import com.example.roulette.exception.RoundClosedException;
+import com.example.roulette.model.*;
+import com.example.roulette.repository.BetRepository;
+import com.example.roulette.repository.RoundRepository;
+import com.example.roulette.websocket.WebSocketHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Drives rounds on a fixed cadence, whether or not anyone bets. A round takes bets for
+ * {@link #BETTING_NANOS}, and the next round opens the moment it closes, so bets are never
+ * turned away while the wheel spins. The closed round settles {@link #SPIN_NANOS} later.
+ * <p>
+ * Every timer is scheduled against an absolute {@link System#nanoTime()} deadline derived
+ * from the first round, so slow settlements or late timer threads never shift the cadence.
+ * The next round's entity is saved ahead of time, and opening it is a reference swap.
+ * <p>
+ * Snapshots derived from memory alone (opening, countdown) are published directly. The
+ * IN_PROGRESS and FINISHED snapshots go through the {@link OutboxService} together with the
+ * round update they describe.
+ */
+@Service
+public class RoundEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(RoundEngine.class);
+
+    private static final long BETTING_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long SPIN_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final long COUNTDOWN_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long PREPARE_LEAD_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int SETTLE_ATTEMPTS = 3;
+    private static final int RELAYABLE_ROUNDS = 8;
+
+    private final RoundRepository roundRepository;
+    private final BetRepository betRepository;
+    private final SettlementService settlementService;
+    private final RoundEventPublisher eventPublisher;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final OutcomeEngine outcomeEngine;
+    private final RoundStatisticsService roundStatistics;
+    private final LeaderboardService leaderboard;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService worker;
+    private final AtomicReference<RoundState> state = new AtomicReference<>(RoundState.IDLE);
+    private final AtomicReference<Round> prepared = new AtomicReference<>();
+    // Drawn when a round is created; kept here, not on the entity, until it is settled or cancelled.
+    private final Map<Long, Outcome> outcomes = new ConcurrentHashMap<>();
+    // Drawn for a round that could not be saved. Its hash was never published, so the next round
+    // takes it instead of skipping a link of the outcome chain.
+    private Outcome unusedOutcome;
+    // The last closed rounds, whose snapshots the outbox relay builds from memory.
+    private final Map<Long, RoundState> relayable = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, RoundState> eldest) {
+            return size() > RELAYABLE_ROUNDS;
+        }
+    });
+    private final boolean clusterEnabled;
+    private final AtomicLong generation = new AtomicLong();
+    // Scheduled and running transitions, so deactivate() can cancel them.
+    private final Set<Future<?>> tasks = ConcurrentHashMap.newKeySet();
+    private final Timer schedulerLag;
+    private final Timer finishTimer;
+    private final Timer winningsTimer;
+    private final DistributionSummary betsPerRound;
+    private volatile boolean active;
+
+    public RoundEngine(RoundRepository roundRepository, BetRepository betRepository, SettlementService settlementService, RoundEventPublisher eventPublisher,
+                       OutboxService outboxService, OutcomeEngine outcomeEngine, RoundStatisticsService roundStatistics,
+                       LeaderboardService leaderboard, TransactionTemplate transactionTemplate,
+                       WebSocketHandler webSocketHandler, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                       @Value("${roulette.cluster.enabled:false}") boolean clusterEnabled) {
+        this.roundRepository = roundRepository;
+        this.betRepository = betRepository;
+        this.settlementService = settlementService;
+        this.eventPublisher = eventPublisher;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.outcomeEngine = outcomeEngine;
+        this.roundStatistics = roundStatistics;
+        this.leaderboard = leaderboard;
+        // The timer thread only fires deadlines; the round transitions run on the worker.
+        this.timer = Executors.newSingleThreadScheduledExecutor();
+        this.worker = virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : Executors.newCachedThreadPool();
+        this.clusterEnabled = clusterEnabled;
+        this.schedulerLag = Timer.builder("roulette.scheduler.lag")
+                .description("Delay between a round transition's planned time and the moment it starts running")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.finishTimer = Timer.builder("roulette.round.finish")
+                .description("Time to spin, settle and persist a closed round")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.winningsTimer = Timer.builder("roulette.round.winnings")
+                .description("Time to calculate the winnings of a round's bets")
+                .register(meterRegistry);
+        this.betsPerRound = DistributionSummary.builder("roulette.round.bets")
+                .description("Bets settled per round")
+                .register(meterRegistry);
+        webSocketHandler.setResyncSource(this::currentSnapshot);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        // In cluster mode only the elected leader runs rounds.
+        if (!clusterEnabled) {
+            activate();
+        }
+    }
+
+    public void activate() {
+        active = true;
+        generation.incrementAndGet();
+        at(System.nanoTime(), () -> {
+            recover();
+            openWhenReady(System.nanoTime());
+        });
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Stops running rounds: pending timers are cancelled, running transitions interrupted, and
+     * bets are refused until the next {@link #activate()}. Rounds left unfinished are cancelled
+     * by whichever node activates next; their seeds are revealed here, since only this node
+     * knows them.
+     */
+    public void deactivate() {
+        active = false;
+        generation.incrementAndGet();
+        tasks.forEach(task -> task.cancel(true));
+        tasks.clear();
+        prepared.set(null);
+        outcomes.forEach(this::reveal);
+        outcomes.clear();
+        relayable.clear();
+        state.set(RoundState.IDLE);
+    }
+
+    @PreDestroy
+    void stop() {
+        timer.shutdownNow();
+        worker.shutdown();
+    }
+
+    /**
+     * Enters the round that is taking bets. The caller must {@link RoundLedger#exit() exit}
+     * its ledger once the bets are appended.
+     */
+    RoundState enter() {
+        while (true) {
+            RoundState current = state.get();
+            if (current.getStatus() != RoundStatus.WAITING) {
+                throw new RoundClosedException("No round is accepting bets");
+            }
+            if (current.getLedger().tryEnter()) {
+                return current;
+            }
+            // Sealed: the next round is about to be published.
+            Thread.onSpinWait();
+        }
+    }
+
+    public Optional<RoundSnapshot> getCurrentRoundSnapshot() {
+        RoundState current = state.get();
+        if (current.getRound() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(snapshot(current));
+    }
+
+    private void recover() {
+        try {
+            settlementService.cancelOrphanedRounds();
+        } catch (RuntimeException e) {
+            log.warn("Could not cancel rounds left unfinished, will retry on the next activation", e);
+        }
+        try {
+            settlementService.recoverPayouts();
+        } catch (RuntimeException e) {
+            log.warn("Could not pay out rounds left uncredited, will retry on the next activation", e);
+        }
+        // Another leader may have finished rounds since this node last ran them.
+        try {
+            roundStatistics.load();
+        } catch (RuntimeException e) {
+            log.warn("Could not load round statistics, continuing from the ones in memory", e);
+        }
+        try {
+            leaderboard.rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the leaderboard, continuing from the one in memory", e);
+        }
+    }
+
+    private void openWhenReady(long opensAt) {
+        Round round;
+        try {
+            round = createRound(opensAt);
+        } catch (RuntimeException e) {
+            log.warn("Could not create the next round, retrying", e);
+            at(System.nanoTime() + RETRY_NANOS, () -> openWhenReady(System.nanoTime()));
+            return;
+        }
+        open(state.get().next(round, opensAt + BETTING_NANOS));
+    }
+
+    private void open(RoundState open) {
+        if (!active) {
+            return;
+        }
+        state.set(open);
+        eventPublisher.publish(snapshotEvent(open));
+
+        long opensAt = open.getClosesAt() - BETTING_NANOS;
+        for (long tick = opensAt + COUNTDOWN_NANOS; tick < open.getClosesAt(); tick += COUNTDOWN_NANOS) {
+            at(tick, () -> {
+                if (state.get() == open) {
+                    eventPublisher.publish(snapshotEvent(open));
+                }
+            });
+        }
+        at(open.getClosesAt() - PREPARE_LEAD_NANOS, () -> prepare(open.getClosesAt()));
+        at(open.getClosesAt(), () -> close(open));
+    }
+
+    private void prepare(long opensAt) {
+        try {
+            prepared.set(createRound(opensAt));
+        } catch (RuntimeException e) {
+            log.warn("Could not prepare the next round, will retry when it opens", e);
+        }
+    }
+
+    private void close(RoundState open) {
+        long opensAt = open.getClosesAt();
+        Round next = prepared.getAndSet(null);
+        if (next == null) {
+            try {
+                next = createRound(opensAt);
+            } catch (RuntimeException e) {
+                log.warn("Could not create the next round, retrying", e);
+            }
+        }
+
+        open.getLedger().seal();
+        RoundState inProgress = open.withStatus(RoundStatus.IN_PROGRESS);
+        if (next != null) {
+            open(open.next(next, opensAt + BETTING_NANOS));
+        } else {
+            state.set(inProgress);
+            at(opensAt + RETRY_NANOS, () -> openWhenReady(System.nanoTime()));
+        }
+        open.getLedger().awaitQuiescence();
+
+        Round round = inProgress.getRound();
+        round.setStatus(RoundStatus.IN_PROGRESS);
+        relayable.put(round.getId(), inProgress);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                roundRepository.save(round);
+                outboxService.appendSnapshot(round.getId(), RoundStatus.IN_PROGRESS);
+            });
+        } catch (RuntimeException e) {
+            // Settling writes the final state anyway; only the IN_PROGRESS snapshot is lost.
+            log.warn("Could not mark round {} as in progress, settling it anyway", round.getId(), e);
+        }
+
+        at(opensAt + SPIN_NANOS, () -> finish(inProgress));
+    }
+
+    private void finish(RoundState inProgress) {
+        Round round = inProgress.getRound();
+        Outcome outcome = outcomes.get(round.getId());
+        if (outcome == null) {
+            log.error("No outcome was drawn for round {}, cancelling it", round.getId());
+            cancel(round, null);
+            return;
+        }
+        settle(inProgress, outcome, 1);
+    }
+
+    void settle(RoundState inProgress, Outcome outcome, int attempt) {
+        long started = System.nanoTime();
+        Round round = inProgress.getRound();
+        round.setStatus(RoundStatus.FINISHED);
+        round.setWinningColor(outcome.color());
+        round.setServerSeed(outcome.serverSeed());
+
+        List<Bet> bets = inProgress.getLedger().bets();
+        winningsTimer.record(() -> calculateWinnings(bets, round.getWinningColor()));
+        RoundState finished = inProgress.withStatus(RoundStatus.FINISHED);
+        relayable.put(round.getId(), finished);
+        try {
+            settlementService.settleRound(round, bets);
+        } catch (RuntimeException e) {
+            if (attempt < SETTLE_ATTEMPTS) {
+                log.warn("Could not settle round {} (attempt {} of {}), retrying", round.getId(), attempt, SETTLE_ATTEMPTS, e);
+                at(System.nanoTime() + RETRY_NANOS, () -> settle(inProgress, outcome, attempt + 1));
+            } else {
+                log.error("Could not settle round {} after {} attempts, cancelling it", round.getId(), SETTLE_ATTEMPTS, e);
+                cancel(round, outcome);
+            }
+            return;
+        }
+        outcomes.remove(round.getId());
+        // Normally the next round is already open; this only applies if opening it failed.
+        state.compareAndSet(inProgress, finished);
+        roundStatistics.record(round.getId(), round.getWinningColor());
+        leaderboard.apply(round, bets);
+
+        finishTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        betsPerRound.record(bets.size());
+    }
+
+    private void cancel(Round round, Outcome outcome) {
+        try {
+            settlementService.cancelRound(round.getId(), outcome == null ? null : outcome.serverSeed());
+        } catch (RuntimeException e) {
+            // The outcome stays known, so deactivate() can still reveal its seed.
+            log.error("Could not cancel round {}, it will be refunded on the next activation", round.getId(), e);
+            return;
+        }
+        outcomes.remove(round.getId());
+    }
+
+    private void reveal(Long roundId, Outcome outcome) {
+        if (outcome.serverSeed() == null) {
+            return;
+        }
+        try {
+            roundRepository.revealServerSeed(roundId, outcome.serverSeed());
+        } catch (RuntimeException e) {
+            log.warn("Could not reveal the seed of abandoned round {}", roundId, e);
+        }
+    }
+
+    // Synchronized so that rounds take the outcomes in the order they are drawn.
+    private synchronized Round createRound(long opensAt) {
+        Round round = new Round();
+        round.setStatus(RoundStatus.WAITING);
+        round.setStartTime(LocalDateTime.now().plusNanos(Math.max(opensAt - System.nanoTime(), 0)));
+        Outcome outcome = unusedOutcome != null ? unusedOutcome : outcomeEngine.next();
+        unusedOutcome = outcome;
+        round.setServerSeedHash(outcome.serverSeedHash());
+        Round saved = roundRepository.save(round);
+        unusedOutcome = null;
+        outcomes.put(saved.getId(), outcome);
+        return saved;
+    }
+
+    private void at(long deadline, Runnable task) {
+        long scheduledIn = generation.get();
+        tasks.removeIf(Future::isDone);
+        tasks.add(timer.schedule(() -> tasks.add(worker.submit(() -> {
+            if (generation.get() == scheduledIn) {
+                schedulerLag.record(Math.max(System.nanoTime() - deadline, 0), TimeUnit.NANOSECONDS);
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.error("Round transition failed", e);
+                }
+            }
+        })), deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * The snapshot the outbox relay publishes for a round that reached {@code status}: built
+     * from memory while the round is among the last ones closed here, otherwise read from the
+     * database. Null if the round no longer exists.
+     */
+    RoundEventDTO relayedSnapshot(long roundId, RoundStatus status) {
+        RoundState roundState = relayable.get(roundId);
+        if (roundState != null && roundState.getStatus() == status) {
+            return snapshotEvent(roundState);
+        }
+        return roundRepository.findResponseById(roundId)
+                .map(round -> {
+                    round.setBets(betRepository.findResponsesByRound(roundId));
+                    return eventOf(RoundSnapshot.encode(objectMapper, round.getBets().size(), round));
+                })
+                .orElse(null);
+    }
+
+    private RoundEventDTO currentSnapshot() {
+        return getCurrentRoundSnapshot().map(this::eventOf).orElse(null);
+    }
+
+    private RoundEventDTO snapshotEvent(RoundState roundState) {
+        return eventOf(snapshot(roundState));
+    }
+
+    private RoundEventDTO eventOf(RoundSnapshot snapshot) {
+        RoundEventDTO event = new RoundEventDTO();
+        event.setType(RoundEventType.SNAPSHOT);
+        event.setRoundId(snapshot.getRoundId());
+        event.setSnapshot(snapshot);
+        return event;
+    }
+
+    /**
+     * Returns the encoded state of the round, reusing the cached snapshot while no bet has been
+     * added and the countdown shows the same second.
+     */
+    private RoundSnapshot snapshot(RoundState roundState) {
+        long version = roundState.getLedger().size();
+        long timeRemaining = roundState.getStatus() == RoundStatus.WAITING ? remainingTime(roundState) : 0;
+
+        RoundSnapshot cached = roundState.getSnapshot();
+        if (cached != null && cached.getVersion() == version && cached.getRound().getTimeRemaining() == timeRemaining) {
+            return cached;
+        }
+
+        Round round = roundState.getRound();
+        RoundResponseDTO roundResponse = new RoundResponseDTO();
+        roundResponse.setId(round.getId());
+        roundResponse.setWinningColor(round.getWinningColor());
+        roundResponse.setStatus(round.getStatus());
+        roundResponse.setServerSeedHash(round.getServerSeedHash());
+        roundResponse.setServerSeed(round.getServerSeed());
+        if (roundState.getStatus() == RoundStatus.FINISHED) {
+            roundResponse.setBets(roundState.getLedger().settledResponses());
+        } else {
+            roundResponse.setBets(roundState.getLedger().responses());
+        }
+        roundResponse.setTimeRemaining(timeRemaining);
+
+        RoundSnapshot snapshot = RoundSnapshot.encode(objectMapper, version, roundResponse);
+        roundState.setSnapshot(snapshot);
+        return snapshot;
+    }
+
+    private long remainingTime(RoundState roundState) {
+        long remaining = roundState.getClosesAt() - System.nanoTime();
+        return Math.max(Math.ceilDiv(remaining, TimeUnit.SECONDS.toNanos(1)), 0);
+    }
+
+    static void calculateWinnings(List<Bet> bets, Color winningColor) {
+        for (Bet bet : bets) {
+            BigDecimal winnings = BigDecimal.ZERO;
+
+            if (bet.getColor() == winningColor) {
+                bet.setStatus(BetStatus.WON);
+                if (winningColor == Color.GREEN) {
+                    winnings = bet.getAmount().multiply(BigDecimal.valueOf(14));
+                } else {
+                    winnings = bet.getAmount().multiply(BigDecimal.valueOf(2));
+                }
+            } else {
+                bet.setStatus(BetStatus.LOST);
+                winnings = bet.getAmount().negate();
+            }
+
+            bet.setWinnings(winnings);
+        }
+    }
+}
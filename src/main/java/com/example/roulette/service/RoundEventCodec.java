@@ -0,0 +1,56 @@
+package com.example.roulette.service;
+
+import com.example.roulette.dto.BetResponseDTO;
+import com.example.roulette.dto.LeaderboardDTO;
+import com.example.roulette.dto.RoundEventDTO;
+import com.example.roulette.dto.RoundEventType;
+import com.example.roulette.dto.RoundResponseDTO;
+import com.example.roulette.dto.RoundSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+/**
+ * JSON form of a {@link RoundEventDTO} for storage and transport between nodes. Decoding
+ * rebuilds the snapshot, so the result can be published like a locally created event.
+ */
+@Component
+public class RoundEventCodec {
+
+    private final ObjectMapper objectMapper;
+
+    public RoundEventCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public String encode(RoundEventDTO event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode " + event.getType() + " event for round " + event.getRoundId(), e);
+        }
+    }
+
+    public RoundEventDTO decode(String json) {
+        try {
+            JsonNode node = objectMapper.readTree(json);
+            RoundEventDTO event = new RoundEventDTO();
+            event.setType(RoundEventType.valueOf(node.get("type").asText()));
+            event.setRoundId(node.get("roundId").asLong());
+            if (node.hasNonNull("round")) {
+                RoundResponseDTO round = objectMapper.treeToValue(node.get("round"), RoundResponseDTO.class);
+                event.setSnapshot(RoundSnapshot.encode(objectMapper, round.getBets().size(), round));
+            }
+            if (node.hasNonNull("bet")) {
+                event.setBet(objectMapper.treeToValue(node.get("bet"), BetResponseDTO.class));
+            }
+            if (node.hasNonNull("leaderboard")) {
+                event.setLeaderboard(objectMapper.treeToValue(node.get("leaderboard"), LeaderboardDTO.class));
+            }
+            return event;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed round event", e);
+        }
+    }
+}
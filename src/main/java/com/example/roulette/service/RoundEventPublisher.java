@@ -0,0 +1,39 @@
+package com.example.roulette.service;
+
+import com.example.roulette.dto.RoundEventDTO;
+import com.example.roulette.websocket.WebSocketHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Single exit for round events: they go to the local WebSocket clients and to every
+ * {@link RoundEventSink} bean. Sinks are looked up once all singletons exist, because most of
+ * them depend on the round engine, which in turn publishes here.
+ */
+@Service
+public class RoundEventPublisher implements SmartInitializingSingleton {
+
+    private final WebSocketHandler webSocketHandler;
+    private final ObjectProvider<RoundEventSink> sinkProvider;
+    private List<RoundEventSink> sinks = List.of();
+
+    public RoundEventPublisher(WebSocketHandler webSocketHandler, ObjectProvider<RoundEventSink> sinkProvider) {
+        this.webSocketHandler = webSocketHandler;
+        this.sinkProvider = sinkProvider;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        sinks = sinkProvider.orderedStream().toList();
+    }
+
+    public void publish(RoundEventDTO event) {
+        webSocketHandler.publish(event);
+        for (RoundEventSink sink : sinks) {
+            sink.publish(event);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.roulette.service;
+
+import com.example.roulette.dto.RoundEventDTO;
+
+/**
+ * Receives every round event published on this node, in publication order. Implementations
+ * must return quickly; anything slow belongs on their own thread.
+ */
+public interface RoundEventSink {
+
+    void publish(RoundEventDTO event);
+}
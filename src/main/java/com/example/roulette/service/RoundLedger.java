@@ -0,0 +1,108 @@
+package com.example.roulette.service;
+
+import com.example.roulette.dto.BetResponseDTO;
+import com.example.roulette.model.Bet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only record of the bets placed in a single round. The {@link RoundEngine} owns
+ * one ledger per round, so broadcasts and settlement read
+ * the bets from memory instead of querying the database again.
+ * <p>
+ * Bet intake enters the ledger before touching the database and exits once the bet is
+ * appended. Sealing the ledger turns away new entrants, and {@link #awaitQuiescence()}
+ * waits for the ones already inside, so no bet can land on a round that has closed.
+ */
+class RoundLedger {
+
+    private static final long SEALED = Long.MIN_VALUE;
+    private static final long QUIESCENCE_POLL_NANOS = 100_000;
+
+    private final ConcurrentLinkedQueue<Entry> entries = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong gate = new AtomicLong();
+
+    boolean tryEnter() {
+        long current = gate.get();
+        while (current >= 0) {
+            if (gate.compareAndSet(current, current + 1)) {
+                return true;
+            }
+            current = gate.get();
+        }
+        return false;
+    }
+
+    void exit() {
+        gate.decrementAndGet();
+    }
+
+    void seal() {
+        gate.getAndUpdate(current -> current | SEALED);
+    }
+
+    void awaitQuiescence() {
+        while ((gate.get() & ~SEALED) != 0) {
+            LockSupport.parkNanos(QUIESCENCE_POLL_NANOS);
+        }
+    }
+
+    void append(Bet bet, BetResponseDTO response) {
+        entries.add(new Entry(bet, response));
+        size.incrementAndGet();
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    List<Bet> bets() {
+        List<Bet> bets = new ArrayList<>(size.get());
+        for (Entry entry : entries) {
+            bets.add(entry.bet());
+        }
+        return bets;
+    }
+
+    List<BetResponseDTO> responses() {
+        List<BetResponseDTO> responses = new ArrayList<>(size.get());
+        for (Entry entry : entries) {
+            responses.add(entry.response());
+        }
+        return responses;
+    }
+
+    /**
+     * Builds the responses again from the bets, which carry their outcome once the round has
+     * been settled.
+     */
+    List<BetResponseDTO> settledResponses() {
+        List<BetResponseDTO> responses = new ArrayList<>(size.get());
+        for (Entry entry : entries) {
+            responses.add(toResponse(entry.bet()));
+        }
+        return responses;
+    }
+
+    static BetResponseDTO toResponse(Bet bet) {
+        BetResponseDTO betResponse = new BetResponseDTO();
+        betResponse.setId(bet.getId());
+        betResponse.setUserId(bet.getUser().getId());
+        betResponse.setAmount(bet.getAmount());
+        betResponse.setColor(bet.getColor());
+        betResponse.setStatus(bet.getStatus());
+        betResponse.setTimestamp(bet.getTimestamp());
+        betResponse.setRoundId(bet.getRound().getId());
+        betResponse.setWinnings(bet.getWinnings());
+        return betResponse;
+    }
+
+    private record Entry(Bet bet, BetResponseDTO response) {
+    }
+}
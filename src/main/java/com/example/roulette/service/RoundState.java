@@ -0,0 +1,69 @@
+package com.example.roulette.service;
+
+import com.example.roulette.dto.RoundSnapshot;
+import com.example.roulette.model.Round;
+import com.example.roulette.model.RoundStatus;
+
+/**
+ * Immutable view of one round in the cadence driven by {@link RoundEngine}. The epoch tells
+ * successive rounds apart even when their entities look alike, and {@code closesAt} is the
+ * {@link System#nanoTime()} deadline at which the round stops taking bets.
+ * <p>
+ * The only mutable part is the last encoded {@link RoundSnapshot}, a cache that is replaced
+ * whenever the ledger or the countdown has moved on.
+ */
+final class RoundState {
+
+    static final RoundState IDLE = new RoundState(0, null, null, RoundStatus.FINISHED, 0);
+
+    private final long epoch;
+    private final Round round;
+    private final RoundLedger ledger;
+    private final RoundStatus status;
+    private final long closesAt;
+    private volatile RoundSnapshot snapshot;
+
+    private RoundState(long epoch, Round round, RoundLedger ledger, RoundStatus status, long closesAt) {
+        this.epoch = epoch;
+        this.round = round;
+        this.ledger = ledger;
+        this.status = status;
+        this.closesAt = closesAt;
+    }
+
+    RoundState next(Round round, long closesAt) {
+        return new RoundState(epoch + 1, round, new RoundLedger(), RoundStatus.WAITING, closesAt);
+    }
+
+    RoundState withStatus(RoundStatus status) {
+        return new RoundState(epoch, round, ledger, status, closesAt);
+    }
+
+    long getEpoch() {
+        return epoch;
+    }
+
+    Round getRound() {
+        return round;
+    }
+
+    RoundLedger getLedger() {
+        return ledger;
+    }
+
+    RoundStatus getStatus() {
+        return status;
+    }
+
+    long getClosesAt() {
+        return closesAt;
+    }
+
+    RoundSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    void setSnapshot(RoundSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+}
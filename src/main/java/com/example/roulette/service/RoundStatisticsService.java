@@ -0,0 +1,121 @@
+package com.example.roulette.service;
+
+import com.example.roulette.dto.RoundResultDTO;
+import com.example.roulette.dto.RoundStatsDTO;
+import com.example.roulette.model.Color;
+import com.example.roulette.model.RoundStatus;
+import com.example.roulette.repository.RoundRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome statistics kept in memory: a ring buffer of the latest results with per-color counts
+ * over it, all-time counts and the current streak. The {@link RoundEngine} records each finished
+ * round and reloads everything from the database when it starts running rounds. Reads return
+ * a prebuilt {@link RoundStatsDTO}, so they cost no database work.
+ * <p>
+ * The current streak is counted within the ring buffer after a reload, so it is capped at
+ * {@link #RECENT_RESULTS} until the engine has run that many rounds.
+ */
+@Service
+public class RoundStatisticsService {
+
+    static final int RECENT_RESULTS = 100;
+
+    private static final Color[] COLORS = Color.values();
+
+    private final RoundRepository roundRepository;
+    private final long[] recentIds = new long[RECENT_RESULTS];
+    private final Color[] recentColors = new Color[RECENT_RESULTS];
+    private final long[] recentCounts = new long[COLORS.length];
+    private final long[] totalCounts = new long[COLORS.length];
+    private int head;
+    private int size;
+    private Color streakColor;
+    private int streakLength;
+    private volatile RoundStatsDTO stats;
+
+    public RoundStatisticsService(RoundRepository roundRepository) {
+        this.roundRepository = roundRepository;
+        this.stats = build();
+    }
+
+    public RoundStatsDTO getStats() {
+        return stats;
+    }
+
+    /**
+     * Replaces the statistics with those of the finished rounds in the database.
+     */
+    public synchronized void load() {
+        head = 0;
+        size = 0;
+        streakColor = null;
+        streakLength = 0;
+        Arrays.fill(recentCounts, 0);
+        Arrays.fill(totalCounts, 0);
+
+        List<RoundResultDTO> recent = roundRepository.findRecentResults(RoundStatus.FINISHED, PageRequest.ofSize(RECENT_RESULTS));
+        for (int i = recent.size() - 1; i >= 0; i--) {
+            push(recent.get(i).getRoundId(), recent.get(i).getWinningColor());
+        }
+        for (RoundRepository.ColorCount count : roundRepository.countByWinningColor(RoundStatus.FINISHED)) {
+            totalCounts[count.getColor().ordinal()] = count.getRounds();
+        }
+        stats = build();
+    }
+
+    public synchronized void record(long roundId, Color winningColor) {
+        push(roundId, winningColor);
+        totalCounts[winningColor.ordinal()]++;
+        stats = build();
+    }
+
+    private void push(long roundId, Color color) {
+        if (size == RECENT_RESULTS) {
+            recentCounts[recentColors[head].ordinal()]--;
+        } else {
+            size++;
+        }
+        recentIds[head] = roundId;
+        recentColors[head] = color;
+        recentCounts[color.ordinal()]++;
+        head = (head + 1) % RECENT_RESULTS;
+
+        if (color == streakColor) {
+            streakLength++;
+        } else {
+            streakColor = color;
+            streakLength = 1;
+        }
+    }
+
+    private RoundStatsDTO build() {
+        List<RoundResultDTO> recent = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            int index = Math.floorMod(head - i, RECENT_RESULTS);
+            recent.add(new RoundResultDTO(recentIds[index], recentColors[index]));
+        }
+        long totalRounds = 0;
+        for (long count : totalCounts) {
+            totalRounds += count;
+        }
+        return new RoundStatsDTO(Collections.unmodifiableList(recent), countsByColor(recentCounts), countsByColor(totalCounts),
+                totalRounds, streakColor, streakLength);
+    }
+
+    private static Map<Color, Long> countsByColor(long[] counts) {
+        Map<Color, Long> byColor = new EnumMap<>(Color.class);
+        for (Color color : COLORS) {
+            byColor.put(color, counts[color.ordinal()]);
+        }
+        return Collections.unmodifiableMap(byColor);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.roulette.service;
+
+import com.example.roulette.exception.RoundNotFoundException;
+import com.example.roulette.model.Bet;
+import com.example.roulette.model.Round;
+import com.example.roulette.model.RoundStatus;
+import com.example.roulette.repository.BetRepository;
+import com.example.roulette.repository.RoundRepository;
+import com.example.roulette.repository.SettlementJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class SettlementService {
+
+    private static final Logger log = LoggerFactory.getLogger(SettlementService.class);
+    private static final Set<RoundStatus> UNFINISHED = EnumSet.of(RoundStatus.WAITING, RoundStatus.IN_PROGRESS);
+
+    private final RoundRepository roundRepository;
+    private final BetRepository betRepository;
+    private final SettlementJdbcRepository settlementJdbcRepository;
+    private final BalanceCache balanceCache;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+
+    public SettlementService(RoundRepository roundRepository, BetRepository betRepository, SettlementJdbcRepository settlementJdbcRepository, BalanceCache balanceCache, OutboxService outboxService, TransactionTemplate transactionTemplate) {
+        this.roundRepository = roundRepository;
+        this.betRepository = betRepository;
+        this.settlementJdbcRepository = settlementJdbcRepository;
+        this.balanceCache = balanceCache;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Persists a finished round together with the outcome of its bets and its outbox snapshot
+     * in one transaction, then pays it out through the {@link BalanceCache} as a single journal
+     * record. The round is committed as not yet credited; if the payout never reaches the
+     * journal, {@link #recoverPayouts()} repeats it from the committed bets.
+     */
+    public Round settleRound(Round round, List<Bet> settledBets) {
+        Map<Long, Long> credits = new HashMap<>();
+        for (Bet bet : settledBets) {
+            // A lost bet records its stake as negative winnings; the stake was debited when placed.
+            if (bet.getWinnings().signum() > 0) {
+                credits.merge(bet.getUser().getId(), BalanceCache.toCents(bet.getWinnings()), Long::sum);
+            }
+        }
+
+        round.setCredited(false);
+        Round saved = transactionTemplate.execute(status -> {
+            settlementJdbcRepository.updateBetOutcomes(settledBets);
+            outboxService.appendSnapshot(round.getId(), RoundStatus.FINISHED);
+            return roundRepository.save(round);
+        });
+
+        payOut(saved.getId(), credits);
+        return saved;
+    }
+
+    /**
+     * Cancels the rounds that an earlier leader, or this node before a restart, left waiting or in
+     * progress, and marks their bets as refunded. Their outcome was only known to the node that
+     * drew it, so they cannot be settled. The refunds are paid by {@link #recoverPayouts()}.
+     * Must run before this node opens rounds of its own.
+     */
+    public void cancelOrphanedRounds() {
+        for (Round round : roundRepository.findByStatusIn(UNFINISHED)) {
+            cancel(round, null);
+        }
+    }
+
+    /**
+     * Cancels a round that could not be settled and refunds its bets. The round's seed, if any,
+     * is revealed like that of a finished round, so the outcome chain has no gap; nothing is
+     * paid on the outcome. If the round was committed as finished after all, only its payout is
+     * completed.
+     */
+    public void cancelRound(Long roundId, String serverSeed) {
+        Round round = roundRepository.findById(roundId)
+                .orElseThrow(() -> new RoundNotFoundException("Round not found"));
+        if (UNFINISHED.contains(round.getStatus())) {
+            cancel(round, serverSeed);
+        }
+        if (Boolean.FALSE.equals(round.getCredited()) && !balanceCache.isPayoutPending(roundId)) {
+            payOut(roundId, creditsOf(roundId));
+        }
+    }
+
+    /**
+     * Pays out the finished or cancelled rounds that were committed but never credited, for
+     * example because the node stopped right after settling them. Must run before this node
+     * settles new rounds, once the balance journal has been replayed.
+     */
+    public void recoverPayouts() {
+        for (Long roundId : roundRepository.findUncreditedIds(EnumSet.of(RoundStatus.FINISHED, RoundStatus.CANCELLED))) {
+            if (balanceCache.isPayoutPending(roundId)) {
+                continue;
+            }
+            log.info("Paying out round {} from its settled bets", roundId);
+            payOut(roundId, creditsOf(roundId));
+        }
+    }
+
+    private void cancel(Round round, String serverSeed) {
+        round.setStatus(RoundStatus.CANCELLED);
+        round.setCredited(false);
+        int refunded = transactionTemplate.execute(status -> {
+            int bets = settlementJdbcRepository.refundBets(round.getId());
+            outboxService.appendSnapshot(round.getId(), RoundStatus.CANCELLED);
+            roundRepository.markCancelled(round.getId(), serverSeed, RoundStatus.CANCELLED);
+            return bets;
+        });
+        log.warn("Cancelled unfinished round {}, refunding {} bets", round.getId(), refunded);
+    }
+
+    private Map<Long, Long> creditsOf(Long roundId) {
+        Map<Long, Long> credits = new HashMap<>();
+        for (BetRepository.UserWinnings winnings : betRepository.sumWinningsByRound(roundId)) {
+            credits.put(winnings.getUserId(), BalanceCache.toCents(winnings.getWinnings()));
+        }
+        return credits;
+    }
+
+    private void payOut(long roundId, Map<Long, Long> credits) {
+        balanceCache.creditRound(roundId, credits);
+        try {
+            balanceCache.flush();
+        } catch (RuntimeException e) {
+            // The payout is journaled; the periodic flush persists it.
+            log.warn("Could not flush the payout of round {}, will retry", roundId, e);
+        }
+    }
+}
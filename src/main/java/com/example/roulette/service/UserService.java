@@ -1,7 +1,6 @@
 package com.example.roulette.service;
 
 import com.example.roulette.exception.UserNotFoundException;
-import com.example.roulette.model.Bet;
 import com.example.roulette.model.User;
 import com.example.roulette.repository.BetRepository;
 import com.example.roulette.repository.UserRepository;
@@ -16,10 +15,12 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final BetRepository betRepository;
+    private final BalanceCache balanceCache;
 
-    public UserService(UserRepository userRepository, BetRepository betRepository) {
+    public UserService(UserRepository userRepository, BetRepository betRepository, BalanceCache balanceCache) {
         this.userRepository = userRepository;
         this.betRepository = betRepository;
+        this.balanceCache = balanceCache;
     }
 
     public User createUser(String username, BigDecimal initialBalance) {
@@ -32,27 +33,37 @@ public class UserService {
     public User addBalance(Long userId, BigDecimal amount) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
-        user.setBalance(user.getBalance().add(amount));
-        return userRepository.save(user);
+        long balance = balanceCache.credit(userId, BalanceCache.toCents(amount));
+        user.setBalance(BalanceCache.toAmount(balance));
+        return user;
     }
 
     public List<User> getAllUsers() {
-        return userRepository.findAll();
+        List<User> users = userRepository.findAll();
+        users.forEach(this::applyCachedBalance);
+        return users;
     }
 
     public User getUserById(Long userId) {
-        return userRepository.findById(userId)
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
+        applyCachedBalance(user);
+        return user;
+    }
+
+    // The cache is authoritative; the row may lag behind until the next flush.
+    private void applyCachedBalance(User user) {
+        balanceCache.peek(user.getId()).ifPresent(cents -> user.setBalance(BalanceCache.toAmount(cents)));
     }
 
     @Transactional
     public void deleteUser(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-
-        List<Bet> bets = betRepository.findByUser(user);
-        betRepository.deleteAll(bets);
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
 
-        userRepository.delete(user);
+        betRepository.deleteByUserId(userId);
+        userRepository.deleteById(userId);
+        balanceCache.evict(userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.example.roulette.service;
+
+import com.example.roulette.model.Color;
+
+/**
+ * The 25 pockets of the wheel: twelve red and twelve black, alternating, then one green.
+ */
+final class Wheel {
+
+    static final int SLOTS = 25;
+
+    private static final Color[] COLORS = new Color[SLOTS];
+
+    static {
+        for (int slot = 0; slot < SLOTS - 1; slot++) {
+            COLORS[slot] = slot % 2 == 0 ? Color.RED : Color.BLACK;
+        }
+        COLORS[SLOTS - 1] = Color.GREEN;
+    }
+
+    private Wheel() {
+    }
+
+    static Color colorOf(int slot) {
+        return COLORS[slot];
+    }
+}
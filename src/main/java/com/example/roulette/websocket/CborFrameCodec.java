@@ -0,0 +1,137 @@
+package com.example.roulette.websocket;
+
+import com.example.roulette.dto.BetResponseDTO;
+import com.example.roulette.dto.LeaderboardDTO;
+import com.example.roulette.dto.LeaderboardEntryDTO;
+import com.example.roulette.dto.RoundEventDTO;
+import com.example.roulette.dto.RoundEventType;
+import com.example.roulette.dto.RoundResponseDTO;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Opt-in binary encoding, negotiated with {@code Sec-WebSocket-Protocol: roulette.v1.cbor}.
+ * A frame is a CBOR array of events, and every event, round and bet is a fixed-layout CBOR
+ * array instead of a map:
+ * <ul>
+ *   <li>event: {@code [type, sequence, roundId, round, bet, leaderboard]}</li>
+ *   <li>round: {@code [id, winningColor, status, timeRemaining, bets, serverSeedHash, serverSeed]}</li>
+ *   <li>bet: {@code [id, userId, amount, color, status, timestamp, roundId, winnings]}</li>
+ *   <li>leaderboard: {@code [day, daily, allTime]}, each entry {@code [userId, net]}</li>
+ * </ul>
+ * Enums are sent as their ordinal, amounts as integer cents, timestamps as epoch milliseconds
+ * (the server records them in its local time zone) and days as ISO-8601 strings. Provably fair
+ * seeds and hashes are 32-byte byte strings, or null.
+ */
+class CborFrameCodec implements FrameCodec {
+
+    static final String SUB_PROTOCOL = "roulette.v1.cbor";
+
+    private final CBORMapper cborMapper;
+
+    CborFrameCodec() {
+        SimpleModule compactValues = new SimpleModule("compact-values")
+                .addSerializer(BigDecimal.class, new CentsSerializer())
+                .addSerializer(LocalDateTime.class, new EpochMillisSerializer())
+                .addSerializer(LocalDate.class, ToStringSerializer.instance);
+        this.cborMapper = CBORMapper.builder()
+                .addModule(compactValues)
+                .enable(SerializationFeature.WRITE_ENUMS_USING_INDEX)
+                .addMixIn(RoundResponseDTO.class, RoundLayout.class)
+                .addMixIn(BetResponseDTO.class, BetLayout.class)
+                .addMixIn(LeaderboardDTO.class, LeaderboardLayout.class)
+                .addMixIn(LeaderboardEntryDTO.class, LeaderboardEntryLayout.class)
+                .build();
+    }
+
+    @Override
+    public String getSubProtocol() {
+        return SUB_PROTOCOL;
+    }
+
+    @Override
+    public WebSocketMessage<?> encode(List<RoundEventDTO> frame) throws IOException {
+        List<BinaryEvent> events = new ArrayList<>(frame.size());
+        for (RoundEventDTO event : frame) {
+            RoundResponseDTO round = event.getSnapshot() == null ? null : event.getSnapshot().getRound();
+            events.add(new BinaryEvent(event.getType(), event.getSequence(), event.getRoundId(), round, event.getBet(), event.getLeaderboard()));
+        }
+        return new BinaryMessage(cborMapper.writeValueAsBytes(events));
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"type", "sequence", "roundId", "round", "bet", "leaderboard"})
+    record BinaryEvent(RoundEventType type, long sequence, Long roundId, RoundResponseDTO round, BetResponseDTO bet,
+                       LeaderboardDTO leaderboard) {
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"id", "winningColor", "status", "timeRemaining", "bets", "serverSeedHash", "serverSeed"})
+    abstract static class RoundLayout {
+        @JsonSerialize(using = HexBytesSerializer.class)
+        abstract String getServerSeedHash();
+
+        @JsonSerialize(using = HexBytesSerializer.class)
+        abstract String getServerSeed();
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"id", "userId", "amount", "color", "status", "timestamp", "roundId", "winnings"})
+    abstract static class BetLayout {
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"day", "daily", "allTime"})
+    abstract static class LeaderboardLayout {
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"userId", "net"})
+    abstract static class LeaderboardEntryLayout {
+    }
+
+    static class CentsSerializer extends JsonSerializer<BigDecimal> {
+        @Override
+        public void serialize(BigDecimal value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            try {
+                gen.writeNumber(value.movePointRight(2).longValueExact());
+            } catch (ArithmeticException e) {
+                throw new JsonGenerationException("Amount " + value + " is not a whole number of cents", e, gen);
+            }
+        }
+    }
+
+    static class HexBytesSerializer extends JsonSerializer<String> {
+        @Override
+        public void serialize(String value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeBinary(HexFormat.of().parseHex(value));
+        }
+    }
+
+    static class EpochMillisSerializer extends JsonSerializer<LocalDateTime> {
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeNumber(value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+}
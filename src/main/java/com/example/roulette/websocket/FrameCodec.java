@@ -0,0 +1,17 @@
+package com.example.roulette.websocket;
+
+import com.example.roulette.dto.RoundEventDTO;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Encoding of a frame of round events for one WebSocket sub-protocol.
+ */
+interface FrameCodec {
+
+    String getSubProtocol();
+
+    WebSocketMessage<?> encode(List<RoundEventDTO> frame) throws IOException;
+}
@@ -0,0 +1,33 @@
+package com.example.roulette.websocket;
+
+import com.example.roulette.dto.RoundEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Default encoding: a JSON array of events sent as a text frame.
+ */
+class JsonFrameCodec implements FrameCodec {
+
+    static final String SUB_PROTOCOL = "roulette.v1.json";
+
+    private final ObjectMapper objectMapper;
+
+    JsonFrameCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getSubProtocol() {
+        return SUB_PROTOCOL;
+    }
+
+    @Override
+    public WebSocketMessage<?> encode(List<RoundEventDTO> frame) throws IOException {
+        return new TextMessage(objectMapper.writeValueAsString(frame));
+    }
+}
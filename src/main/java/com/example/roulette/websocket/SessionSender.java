@@ -0,0 +1,90 @@
+package com.example.roulette.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounded outgoing queue for one session. At most one drain task runs per session, so
+ * {@link WebSocketSession#sendMessage} is never called concurrently, and a slow client only
+ * delays its own frames. When the queue is full the oldest frame is dropped.
+ */
+class SessionSender {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionSender.class);
+
+    private final WebSocketSession session;
+    private final FrameCodec codec;
+    private final BlockingQueue<WebSocketMessage<?>> queue;
+    private final Executor executor;
+    private final Counter droppedFrames;
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    SessionSender(WebSocketSession session, FrameCodec codec, int capacity, Executor executor, Counter droppedFrames) {
+        this.session = session;
+        this.codec = codec;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.executor = executor;
+        this.droppedFrames = droppedFrames;
+    }
+
+    void enqueue(WebSocketMessage<?> message) {
+        while (!queue.offer(message)) {
+            if (queue.poll() != null) {
+                droppedFrames.increment();
+            }
+        }
+        scheduleDrain();
+    }
+
+    FrameCodec getCodec() {
+        return codec;
+    }
+
+    int depth() {
+        return queue.size();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            WebSocketMessage<?> message;
+            while ((message = queue.poll()) != null && session.isOpen()) {
+                session.sendMessage(message);
+            }
+        } catch (IOException e) {
+            log.debug("Closing WebSocket session {} after a failed send", session.getId(), e);
+            closeQuietly();
+        } finally {
+            draining.set(false);
+        }
+
+        if (!session.isOpen()) {
+            queue.clear();
+        } else if (!queue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.debug("Could not close WebSocket session {}", session.getId(), e);
+        }
+    }
+}
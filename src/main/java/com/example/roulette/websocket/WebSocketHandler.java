@@ -1,47 +1,240 @@
 package com.example.roulette.websocket;
 
+import com.example.roulette.dto.BetResponseDTO;
+import com.example.roulette.dto.RoundEventDTO;
+import com.example.roulette.dto.RoundEventType;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
 import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
-public class WebSocketHandler extends TextWebSocketHandler {
+public class WebSocketHandler extends TextWebSocketHandler implements SubProtocolCapable {
 
-    private final List<WebSocketSession> sessions = new CopyOnWriteArrayList<>();
+    private static final Logger log = LoggerFactory.getLogger(WebSocketHandler.class);
+
+    private static final String RESYNC = "RESYNC";
+
+    private final Map<String, SessionSender> senders = new ConcurrentHashMap<>();
     private final ObjectMapper objectMapper;
+    private final FrameCodec jsonCodec;
+    private final FrameCodec cborCodec;
+    private final int sendQueueCapacity;
+    private final ExecutorService sendExecutor;
+    private final Counter droppedFrames;
+    private final Timer fanOut;
+    private final Map<FrameCodec, DistributionSummary> frameBytes = new HashMap<>();
+    private final ConcurrentLinkedQueue<RoundEventDTO> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService ticker;
+    private final Object sequenceLock = new Object();
+    private long sequence;
+    private volatile Supplier<RoundEventDTO> resyncSource = () -> null;
+
+    public WebSocketHandler(ObjectMapper objectMapper, MeterRegistry meterRegistry, int sendQueueCapacity, long broadcastIntervalMillis) {
+        this.objectMapper = objectMapper;
+        this.jsonCodec = new JsonFrameCodec(objectMapper);
+        this.cborCodec = new CborFrameCodec();
+        this.sendQueueCapacity = sendQueueCapacity;
+        this.sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.ticker = Executors.newSingleThreadScheduledExecutor();
+        this.ticker.scheduleAtFixedRate(this::broadcastTickQuietly, broadcastIntervalMillis, broadcastIntervalMillis, TimeUnit.MILLISECONDS);
+        this.droppedFrames = Counter.builder("roulette.websocket.frames.dropped")
+                .description("Frames discarded because a session's send queue was full")
+                .register(meterRegistry);
+        this.fanOut = Timer.builder("roulette.websocket.broadcast.fanout")
+                .description("Time to encode a broadcast frame and queue it for every session")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        for (FrameCodec codec : List.of(jsonCodec, cborCodec)) {
+            frameBytes.put(codec, DistributionSummary.builder("roulette.websocket.frame.size")
+                    .description("Size of an encoded broadcast frame")
+                    .baseUnit("bytes")
+                    .tag("codec", codec.getSubProtocol())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("roulette.websocket.sessions", senders, Map::size)
+                .description("Open WebSocket sessions")
+                .register(meterRegistry);
+        Gauge.builder("roulette.websocket.send.queue.depth", senders, WebSocketHandler::totalQueueDepth)
+                .description("Frames waiting in all session send queues")
+                .register(meterRegistry);
+        Gauge.builder("roulette.websocket.send.queue.max.depth", senders, WebSocketHandler::maxQueueDepth)
+                .description("Frames waiting in the fullest session send queue")
+                .register(meterRegistry);
+    }
 
-    public WebSocketHandler() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+    /**
+     * Clients opt into the binary encoding through {@code Sec-WebSocket-Protocol}; without a
+     * negotiated protocol the session receives JSON text frames.
+     */
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(cborCodec.getSubProtocol(), jsonCodec.getSubProtocol());
     }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
-        sessions.add(session);
+        FrameCodec codec = cborCodec.getSubProtocol().equals(session.getAcceptedProtocol()) ? cborCodec : jsonCodec;
+        senders.put(session.getId(), new SessionSender(session, codec, sendQueueCapacity, sendExecutor, droppedFrames));
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
-        sessions.remove(session);
+        senders.remove(session.getId());
     }
 
-    public void notifyClients(Object message) {
-        try {
-            String jsonMessage = objectMapper.writeValueAsString(message);
-            TextMessage textMessage = new TextMessage(jsonMessage);
-            for (WebSocketSession session : sessions) {
-                if (session.isOpen()) {
-                    session.sendMessage(textMessage);
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        JsonNode request = objectMapper.readTree(message.getPayload());
+        if (RESYNC.equals(request.path("type").asText())) {
+            resync(session);
+        }
+    }
+
+    public void setResyncSource(Supplier<RoundEventDTO> resyncSource) {
+        this.resyncSource = resyncSource;
+    }
+
+    /**
+     * Queues the event for the next broadcast tick. The caller never serializes or sends.
+     */
+    public void publish(RoundEventDTO event) {
+        pending.add(event);
+    }
+
+    /**
+     * Merges everything published since the last tick into one frame: a JSON array of events,
+     * each stamped with the next sequence number. Only the latest snapshot of a round is kept,
+     * and bets it already contains are not sent again as deltas.
+     */
+    private void broadcastTick() {
+        List<RoundEventDTO> events = new ArrayList<>();
+        RoundEventDTO event;
+        while ((event = pending.poll()) != null) {
+            events.add(event);
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        List<RoundEventDTO> frame = coalesce(events);
+        long started = System.nanoTime();
+        synchronized (sequenceLock) {
+            for (RoundEventDTO frameEvent : frame) {
+                frameEvent.setSequence(++sequence);
+            }
+            // Encoded at most once per sub-protocol, and only if a session speaks it.
+            Map<FrameCodec, WebSocketMessage<?>> encoded = new HashMap<>();
+            for (SessionSender sender : senders.values()) {
+                WebSocketMessage<?> message = encoded.computeIfAbsent(sender.getCodec(), codec -> encode(codec, frame));
+                if (message != null) {
+                    sender.enqueue(message);
+                }
+            }
+        }
+        fanOut.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    private static List<RoundEventDTO> coalesce(List<RoundEventDTO> events) {
+        Map<Long, Set<Long>> snapshotBets = new HashMap<>();
+        Deque<RoundEventDTO> kept = new ArrayDeque<>(events.size());
+        for (int i = events.size() - 1; i >= 0; i--) {
+            RoundEventDTO event = events.get(i);
+            Set<Long> covered = snapshotBets.get(event.getRoundId());
+            if (event.getType() == RoundEventType.SNAPSHOT) {
+                if (covered != null) {
+                    continue;
+                }
+                Set<Long> betIds = new HashSet<>();
+                for (BetResponseDTO bet : event.getSnapshot().getRound().getBets()) {
+                    betIds.add(bet.getId());
                 }
+                snapshotBets.put(event.getRoundId(), betIds);
+            } else if (event.getType() == RoundEventType.BET_PLACED && covered != null && covered.contains(event.getBet().getId())) {
+                continue;
             }
+            kept.addFirst(event);
+        }
+        return new ArrayList<>(kept);
+    }
+
+    /**
+     * Sends the current snapshot to one session. It is stamped with the latest sequence already
+     * broadcast, so the next frame the client receives continues from there. Bets already in the
+     * snapshot may still arrive as {@code BET_PLACED}; clients apply them idempotently by bet id.
+     */
+    private void resync(WebSocketSession session) {
+        SessionSender sender = senders.get(session.getId());
+        RoundEventDTO snapshot = resyncSource.get();
+        if (sender == null || snapshot == null) {
+            return;
+        }
+        synchronized (sequenceLock) {
+            snapshot.setSequence(sequence);
+            WebSocketMessage<?> message = encode(sender.getCodec(), List.of(snapshot));
+            if (message != null) {
+                sender.enqueue(message);
+            }
+        }
+    }
+
+    private WebSocketMessage<?> encode(FrameCodec codec, List<RoundEventDTO> frame) {
+        try {
+            WebSocketMessage<?> message = codec.encode(frame);
+            frameBytes.get(codec).record(message.getPayloadLength());
+            return message;
         } catch (IOException e) {
-            e.printStackTrace();
+            log.warn("Could not encode a frame of {} events", frame.size(), e);
+            return null;
         }
     }
-}
\ No newline at end of file
+
+    public void shutdown() {
+        ticker.shutdown();
+        sendExecutor.shutdown();
+    }
+
+    private void broadcastTickQuietly() {
+        try {
+            broadcastTick();
+        } catch (RuntimeException e) {
+            // An exception would cancel the ticker for good.
+            log.warn("Broadcast tick failed", e);
+        }
+    }
+
+    private static double totalQueueDepth(Map<String, SessionSender> senders) {
+        return senders.values().stream().mapToInt(SessionSender::depth).sum();
+    }
+
+    private static double maxQueueDepth(Map<String, SessionSender> senders) {
+        return senders.values().stream().mapToInt(SessionSender::depth).max().orElse(0);
+    }
+}
@@ -0,0 +1,9 @@
+-- Ids used to come from identity columns. Move each sequence past the highest existing id,
+-- leaving a full allocation block of headroom, so pooled ids never collide with old rows.
+-- Only a sequence still behind its table is moved, so this runs once per database.
+SELECT setval('users_seq', (SELECT MAX(id) FROM users) + 50)
+WHERE (SELECT MAX(id) FROM users) > (SELECT last_value FROM users_seq)@@
+SELECT setval('rounds_seq', (SELECT MAX(id) FROM rounds) + 50)
+WHERE (SELECT MAX(id) FROM rounds) > (SELECT last_value FROM rounds_seq)@@
+SELECT setval('bets_seq', (SELECT MAX(id) FROM bets) + 50)
+WHERE (SELECT MAX(id) FROM bets) > (SELECT last_value FROM bets_seq)@@
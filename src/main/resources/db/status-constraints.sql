@@ -0,0 +1,25 @@
+-- Hibernate only creates the enum check constraints with a table, so widen them here whenever a
+-- status is added: rounds can be CANCELLED and bets REFUNDED when a leader leaves a round behind.
+-- A constraint is only replaced while it still lacks the new status, so this runs once per
+-- database. Statements end with @@ (spring.sql.init.separator) so the blocks are not split.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'rounds'::regclass AND conname = 'rounds_status_check'
+                     AND pg_get_constraintdef(oid) LIKE '%''CANCELLED''%') THEN
+        ALTER TABLE rounds DROP CONSTRAINT IF EXISTS rounds_status_check;
+        ALTER TABLE rounds ADD CONSTRAINT rounds_status_check CHECK (status IN ('WAITING', 'IN_PROGRESS', 'FINISHED', 'CANCELLED'));
+    END IF;
+END
+$$@@
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'bets'::regclass AND conname = 'bets_status_check'
+                     AND pg_get_constraintdef(oid) LIKE '%''REFUNDED''%') THEN
+        ALTER TABLE bets DROP CONSTRAINT IF EXISTS bets_status_check;
+        ALTER TABLE bets ADD CONSTRAINT bets_status_check CHECK (status IN ('PENDING', 'WON', 'LOST', 'REFUNDED'));
+    END IF;
+END
+$$@@
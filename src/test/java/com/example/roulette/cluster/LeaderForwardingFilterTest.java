@@ -0,0 +1,105 @@
+package com.example.roulette.cluster;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LeaderForwardingFilterTest {
+
+    private static final String SECRET = "cluster-secret";
+
+    private final LeaderElection leaderElection = mock(LeaderElection.class);
+    private final AtomicReference<String> forwardedSecret = new AtomicReference<>();
+    private HttpServer leader;
+    private LeaderForwardingFilter filter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        leader = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        leader.createContext("/", exchange -> {
+            forwardedSecret.set(exchange.getRequestHeaders().getFirst(LeaderForwardingFilter.FORWARDED_HEADER));
+            byte[] body = "from leader".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(201, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        leader.start();
+        when(leaderElection.getLeaderUrl()).thenReturn("http://localhost:" + leader.getAddress().getPort());
+        filter = new LeaderForwardingFilter(leaderElection, 5_000, SECRET);
+    }
+
+    @AfterEach
+    void tearDown() {
+        leader.stop(0);
+    }
+
+    @Test
+    void followerForwardsLeaderRoutesWithTheSecret() throws Exception {
+        MockHttpServletResponse response = filter(request("POST", "/api/roulette/bet", null));
+
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(response.getContentAsString()).isEqualTo("from leader");
+        assertThat(forwardedSecret.get()).isEqualTo(SECRET);
+    }
+
+    @Test
+    void followerServesOtherRoutesItself() {
+        assertThat(filter.shouldNotFilter(request("GET", "/api/roulette/user/1/bets", null))).isTrue();
+        assertThat(filter.shouldNotFilter(request("GET", "/api/roulette/bet", null))).isTrue();
+    }
+
+    @Test
+    void leaderServesLeaderRoutesItself() {
+        when(leaderElection.isLeader()).thenReturn(true);
+
+        assertThat(filter.shouldNotFilter(request("POST", "/api/roulette/bet", null))).isTrue();
+    }
+
+    @Test
+    void followerServesARequestForwardedWithTheSecret() {
+        assertThat(filter.shouldNotFilter(request("POST", "/api/roulette/bet", SECRET))).isTrue();
+    }
+
+    @Test
+    void forwardedHeaderWithoutTheSecretIsIgnored() throws Exception {
+        MockHttpServletRequest request = request("POST", "/api/roulette/bet", "true");
+
+        assertThat(filter.shouldNotFilter(request)).isFalse();
+        filter(request);
+        assertThat(forwardedSecret.get()).isEqualTo(SECRET);
+    }
+
+    @Test
+    void clusterModeRequiresASecret() {
+        assertThatThrownBy(() -> new LeaderForwardingFilter(leaderElection, 5_000, ""))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, String forwardedHeader) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        if (forwardedHeader != null) {
+            request.addHeader(LeaderForwardingFilter.FORWARDED_HEADER, forwardedHeader);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.roulette.controller;
+
+import com.example.roulette.dto.BetResponseDTO;
+import com.example.roulette.exception.GlobalExceptionHandler;
+import com.example.roulette.exception.RoundClosedException;
+import com.example.roulette.exception.RoundNotFoundException;
+import com.example.roulette.service.LeaderboardService;
+import com.example.roulette.service.RouletteService;
+import com.example.roulette.service.RoundStatisticsService;
+import com.example.roulette.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.validation.beanvalidation.MethodValidationPostProcessor;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RouletteControllerTest {
+
+    private static final String VALID_BET = "{\"userId\": 1, \"amount\": 5.00, \"color\": \"RED\"}";
+
+    private final RouletteService rouletteService = mock(RouletteService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
+        validator.afterPropertiesSet();
+        // Applies the controller's @Validated the way the application context does.
+        MethodValidationPostProcessor methodValidation = new MethodValidationPostProcessor();
+        methodValidation.setValidator(validator);
+        methodValidation.afterPropertiesSet();
+        Object controller = methodValidation.postProcessAfterInitialization(new RouletteController(rouletteService,
+                mock(UserService.class), mock(RoundStatisticsService.class), mock(LeaderboardService.class)), "rouletteController");
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setValidator(validator)
+                .build();
+    }
+
+    @Test
+    void batchIsPlacedWhenEveryBetIsValid() throws Exception {
+        when(rouletteService.placeBets(anyList())).thenReturn(List.of(new BetResponseDTO(), new BetResponseDTO()));
+
+        mockMvc.perform(post("/api/roulette/bets").contentType(MediaType.APPLICATION_JSON).content("[" + VALID_BET + ", " + VALID_BET + "]"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void batchWithOneInvalidBetIsRejected() throws Exception {
+        String invalidBet = "{\"userId\": 1, \"amount\": 0, \"color\": \"RED\"}";
+
+        mockMvc.perform(post("/api/roulette/bets").contentType(MediaType.APPLICATION_JSON).content("[" + VALID_BET + ", " + invalidBet + "]"))
+                .andExpect(status().isBadRequest());
+
+        verify(rouletteService, never()).placeBets(any());
+    }
+
+    @Test
+    void betOnAClosedRoundIsAConflict() throws Exception {
+        when(rouletteService.placeBet(any())).thenThrow(new RoundClosedException("No round is accepting bets"));
+
+        mockMvc.perform(post("/api/roulette/bet").contentType(MediaType.APPLICATION_JSON).content(VALID_BET))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void unknownRoundIsNotFound() throws Exception {
+        when(rouletteService.getRoundById(42L)).thenThrow(new RoundNotFoundException("Round not found"));
+
+        mockMvc.perform(get("/api/roulette/round/42"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.roulette.service;
+
+import com.example.roulette.exception.NotLeaderException;
+import com.example.roulette.model.User;
+import com.example.roulette.repository.BalanceJdbcRepository;
+import com.example.roulette.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BalanceCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final BalanceJdbcRepository balanceJdbcRepository = mock(BalanceJdbcRepository.class);
+    private BalanceCache balanceCache;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId(1L);
+        user.setBalance(new BigDecimal("10.00"));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        balanceCache = new BalanceCache(userRepository, balanceJdbcRepository, directory.toString(), false, 60_000, true);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        balanceCache.stop();
+    }
+
+    @Test
+    void followerRefusesBalanceChanges() {
+        assertThatThrownBy(() -> balanceCache.credit(1L, 500)).isInstanceOf(NotLeaderException.class);
+        assertThatThrownBy(() -> balanceCache.debitAll(Map.of(1L, 500L))).isInstanceOf(NotLeaderException.class);
+        assertThatThrownBy(() -> balanceCache.creditRound(3, Map.of(1L, 500L))).isInstanceOf(NotLeaderException.class);
+
+        assertThat(balanceCache.isPayoutPending(3)).isFalse();
+    }
+
+    @Test
+    void leaderChangesBalancesOnlyDuringItsTerm() {
+        balanceCache.acquire(0, 1);
+
+        assertThat(balanceCache.credit(1L, 500)).isEqualTo(1_500);
+        balanceCache.flush();
+        verify(balanceJdbcRepository).writeBalances(Map.of(1L, 1_500L), List.of(), 1L);
+
+        balanceCache.release();
+
+        assertThatThrownBy(() -> balanceCache.debit(1L, 500)).isInstanceOf(NotLeaderException.class);
+    }
+}
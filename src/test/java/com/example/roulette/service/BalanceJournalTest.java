@@ -0,0 +1,205 @@
+package com.example.roulette.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BalanceJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private BalanceJournal journal;
+
+    @AfterEach
+    void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void replayKeepsTheLastBalanceOfEveryUser() {
+        journal = new BalanceJournal(directory, false);
+        journal.append(BalanceJournal.NO_ROUND, new long[]{1, 2}, new long[]{1_000, 2_000}, 2);
+        journal.rotate();
+        journal.append(BalanceJournal.NO_ROUND, new long[]{1}, new long[]{750}, 1);
+        journal.rotate();
+
+        BalanceJournal.Replay replay = BalanceJournal.replay(journal.sealedSegments());
+
+        assertThat(replay.balances()).isEqualTo(Map.of(1L, 750L, 2L, 2_000L));
+        assertThat(replay.creditedRounds()).isEmpty();
+    }
+
+    @Test
+    void replayReportsTheRoundsThatWerePaidOut() {
+        journal = new BalanceJournal(directory, false);
+        journal.append(BalanceJournal.NO_ROUND, new long[]{1}, new long[]{500}, 1);
+        journal.append(7, new long[]{1}, new long[]{900}, 1);
+        journal.append(8, new long[0], new long[0], 0);
+        journal.rotate();
+
+        BalanceJournal.Replay replay = BalanceJournal.replay(journal.sealedSegments());
+
+        assertThat(replay.balances()).isEqualTo(Map.of(1L, 900L));
+        assertThat(replay.creditedRounds()).containsExactlyInAnyOrder(7L, 8L);
+    }
+
+    @Test
+    void rotateSealsOnlyTheSegmentsWrittenBeforeIt() {
+        journal = new BalanceJournal(directory, false);
+        assertThat(journal.sealedSegments()).isEmpty();
+
+        journal.append(BalanceJournal.NO_ROUND, new long[]{1}, new long[]{100}, 1);
+        journal.rotate();
+        List<Path> sealed = journal.sealedSegments();
+        journal.append(BalanceJournal.NO_ROUND, new long[]{1}, new long[]{200}, 1);
+
+        assertThat(sealed).hasSize(1);
+        assertThat(BalanceJournal.replay(sealed).balances()).isEqualTo(Map.of(1L, 100L));
+
+        journal.delete(sealed);
+        assertThat(journal.sealedSegments()).isEmpty();
+        assertThat(sealed.get(0)).doesNotExist();
+    }
+
+    @Test
+    void reopenedJournalSealsTheSegmentsOfTheEarlierProcess() throws IOException {
+        journal = new BalanceJournal(directory, false);
+        journal.append(BalanceJournal.NO_ROUND, new long[]{3}, new long[]{300}, 1);
+        journal.close();
+
+        journal = new BalanceJournal(directory, false);
+
+        assertThat(BalanceJournal.replay(journal.sealedSegments()).balances()).isEqualTo(Map.of(3L, 300L));
+    }
+
+    @Test
+    void tornRecordAtTheEndOfASegmentIsIgnored() throws IOException {
+        journal = new BalanceJournal(directory, false);
+        journal.append(BalanceJournal.NO_ROUND, new long[]{1}, new long[]{100}, 1);
+        journal.append(5, new long[]{1, 2}, new long[]{400, 600}, 2);
+        journal.rotate();
+        Path segment = journal.sealedSegments().get(0);
+        truncate(segment, Files.size(segment) - 3);
+
+        BalanceJournal.Replay replay = BalanceJournal.replay(List.of(segment));
+
+        assertThat(replay.balances()).isEqualTo(Map.of(1L, 100L));
+        assertThat(replay.creditedRounds()).isEmpty();
+    }
+
+    @Test
+    void checksumMismatchStopsTheReplayOfThatSegment() throws IOException {
+        journal = new BalanceJournal(directory, false);
+        journal.append(BalanceJournal.NO_ROUND, new long[]{1}, new long[]{100}, 1);
+        journal.append(BalanceJournal.NO_ROUND, new long[]{1}, new long[]{200}, 1);
+        journal.append(BalanceJournal.NO_ROUND, new long[]{2}, new long[]{300}, 1);
+        journal.rotate();
+        Path segment = journal.sealedSegments().get(0);
+        // Flips a bit in the balance of the second record: int count, long roundId, long userId, long cents, int crc.
+        int recordBytes = Integer.BYTES + Long.BYTES + 2 * Long.BYTES + Integer.BYTES;
+        flipBit(segment, recordBytes + Integer.BYTES + 2 * Long.BYTES);
+
+        BalanceJournal.Replay replay = BalanceJournal.replay(List.of(segment));
+
+        assertThat(replay.balances()).isEqualTo(Map.of(1L, 100L));
+    }
+
+    @Test
+    void appendCompletesOnceTheRecordIsWritten() throws IOException {
+        journal = new BalanceJournal(directory, true);
+
+        journal.append(BalanceJournal.NO_ROUND, new long[]{1}, new long[]{100}, 1).join();
+
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(file -> file.getFileName().toString().endsWith(".wal")).toList();
+        }
+        assertThat(BalanceJournal.replay(segments).balances()).isEqualTo(Map.of(1L, 100L));
+    }
+
+    @Test
+    void concurrentAppendsAreAllWrittenInTheirOrder() throws Exception {
+        journal = new BalanceJournal(directory, true);
+        int users = 8;
+        int appendsPerUser = 200;
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(users)) {
+            List<Future<?>> appenders = new ArrayList<>();
+            for (long userId = 1; userId <= users; userId++) {
+                long id = userId;
+                appenders.add(executor.submit(() -> {
+                    List<CompletableFuture<Void>> written = new ArrayList<>();
+                    for (long cents = 1; cents <= appendsPerUser; cents++) {
+                        written.add(journal.append(BalanceJournal.NO_ROUND, new long[]{id}, new long[]{cents}, 1));
+                    }
+                    written.forEach(CompletableFuture::join);
+                }));
+            }
+            for (Future<?> appender : appenders) {
+                appender.get();
+            }
+        }
+        journal.rotate();
+
+        Map<Long, Long> balances = BalanceJournal.replay(journal.sealedSegments()).balances();
+        assertThat(balances).hasSize(users).allSatisfy((userId, cents) -> assertThat(cents).isEqualTo(appendsPerUser));
+    }
+
+    @Test
+    void closeWritesQueuedRecordsAndRefusesNewOnes() throws IOException {
+        journal = new BalanceJournal(directory, false);
+        CompletableFuture<Void> written = journal.append(BalanceJournal.NO_ROUND, new long[]{1}, new long[]{100}, 1);
+
+        journal.close();
+
+        assertThat(written).isCompleted();
+        assertThatThrownBy(() -> journal.append(BalanceJournal.NO_ROUND, new long[]{1}, new long[]{200}, 1))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void epochSurvivesReopening() throws IOException {
+        journal = new BalanceJournal(directory, false);
+        assertThat(journal.epoch()).isZero();
+
+        journal.setEpoch(4);
+        journal.close();
+        journal = new BalanceJournal(directory, false);
+
+        assertThat(journal.epoch()).isEqualTo(4);
+    }
+
+    private static void truncate(Path file, long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(length);
+        }
+    }
+
+    private static void flipBit(Path file, long offset) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(offset);
+            int value = raf.read();
+            raf.seek(offset);
+            raf.write(value ^ 1);
+        }
+    }
+}
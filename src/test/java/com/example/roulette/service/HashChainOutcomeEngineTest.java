@@ -0,0 +1,56 @@
+package com.example.roulette.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashChainOutcomeEngineTest {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final HashChainOutcomeEngine engine = new HashChainOutcomeEngine(200);
+
+    @Test
+    void publishedHashesNeverRevealAnUnrevealedSeed() throws Exception {
+        List<Outcome> chain = engine.buildChain();
+
+        // Round i's hash is published while rounds i - 1, i, i + 1, ... are still unrevealed.
+        for (int i = 0; i < chain.size(); i++) {
+            Set<String> unrevealed = new HashSet<>();
+            for (int j = Math.max(0, i - 1); j < chain.size(); j++) {
+                unrevealed.add(chain.get(j).serverSeed());
+            }
+            assertThat(unrevealed).doesNotContain(chain.get(i).serverSeedHash());
+        }
+    }
+
+    @Test
+    void eachRoundVerifiesAgainstItsCommitmentAndThePreviousSeed() throws Exception {
+        List<Outcome> chain = engine.buildChain();
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        Mac hmac = Mac.getInstance("HmacSHA256");
+
+        for (int i = 0; i < chain.size(); i++) {
+            byte[] seed = HEX.parseHex(chain.get(i).serverSeed());
+            assertThat(HEX.formatHex(sha256.digest(seed))).isEqualTo(chain.get(i).serverSeedHash());
+
+            if (i > 0) {
+                sha256.update(HashChainOutcomeEngine.CHAIN_PREFIX);
+                assertThat(HEX.formatHex(sha256.digest(seed))).isEqualTo(chain.get(i - 1).serverSeed());
+            }
+
+            hmac.init(new SecretKeySpec(seed, "HmacSHA256"));
+            int slot = HashChainOutcomeEngine.slot(hmac.doFinal("roulette".getBytes(StandardCharsets.US_ASCII)));
+            assertThat(chain.get(i).color()).isEqualTo(Wheel.colorOf(slot));
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.roulette.service;
+
+import com.example.roulette.dto.LeaderboardDTO;
+import com.example.roulette.dto.LeaderboardEntryDTO;
+import com.example.roulette.dto.RoundEventDTO;
+import com.example.roulette.dto.RoundEventType;
+import com.example.roulette.model.Bet;
+import com.example.roulette.model.BetStatus;
+import com.example.roulette.model.LeaderboardScore;
+import com.example.roulette.model.Round;
+import com.example.roulette.model.RoundStatus;
+import com.example.roulette.model.User;
+import com.example.roulette.repository.BetRepository;
+import com.example.roulette.repository.LeaderboardJdbcRepository;
+import com.example.roulette.repository.LeaderboardScoreRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LeaderboardServiceTest {
+
+    private static final long CHECKPOINT_INTERVAL_MILLIS = 50;
+
+    private final LeaderboardScoreRepository leaderboardScoreRepository = mock(LeaderboardScoreRepository.class);
+    private final LeaderboardJdbcRepository leaderboardJdbcRepository = mock(LeaderboardJdbcRepository.class);
+    private final BetRepository betRepository = mock(BetRepository.class);
+    private final RoundEventPublisher eventPublisher = mock(RoundEventPublisher.class);
+    private final RoundEngine roundEngine = mock(RoundEngine.class);
+    private LeaderboardService service;
+
+    @AfterEach
+    void stop() {
+        if (service != null) {
+            service.stop();
+        }
+    }
+
+    @Test
+    void applyRanksWinnersByNetResult() {
+        service = service(10);
+        LocalDateTime started = LocalDateTime.now();
+
+        service.apply(round(1, started), List.of(
+                bet(1, BetStatus.WON, "10.00", "20.00"),
+                bet(2, BetStatus.LOST, "5.00", "-5.00"),
+                bet(3, BetStatus.WON, "1.00", "14.00"),
+                bet(1, BetStatus.LOST, "2.00", "-2.00")));
+
+        LeaderboardDTO leaderboard = service.getLeaderboard();
+        assertThat(leaderboard.getDaily()).extracting(LeaderboardEntryDTO::getUserId, LeaderboardEntryDTO::getNet)
+                .containsExactly(tuple(3L, new BigDecimal("13.00")), tuple(1L, new BigDecimal("8.00")));
+        assertThat(leaderboard.getAllTime()).extracting(LeaderboardEntryDTO::getUserId).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void topIsCappedAtTheConfiguredSize() {
+        service = service(2);
+
+        service.apply(round(1, LocalDateTime.now()), List.of(
+                bet(1, BetStatus.WON, "1.00", "2.00"),
+                bet(2, BetStatus.WON, "2.00", "4.00"),
+                bet(3, BetStatus.WON, "3.00", "6.00")));
+
+        assertThat(service.getLeaderboard().getDaily()).extracting(LeaderboardEntryDTO::getUserId).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void leaderboardIsPushedOnlyWhenTheTopChanges() {
+        service = service(10);
+        LocalDateTime started = LocalDateTime.now();
+
+        service.apply(round(1, started), List.of(bet(1, BetStatus.WON, "10.00", "20.00")));
+        service.apply(round(2, started.plusSeconds(30)), List.of(bet(2, BetStatus.LOST, "5.00", "-5.00")));
+
+        ArgumentCaptor<RoundEventDTO> pushed = ArgumentCaptor.forClass(RoundEventDTO.class);
+        verify(eventPublisher).publish(pushed.capture());
+        assertThat(pushed.getValue().getType()).isEqualTo(RoundEventType.LEADERBOARD);
+        assertThat(pushed.getValue().getRoundId()).isEqualTo(1);
+    }
+
+    @Test
+    void rebuildReplaysTheRoundsStartedAfterTheWatermark() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime watermark = today.atStartOfDay();
+        LocalDateTime replayedStart = watermark.plusMinutes(5);
+        List<LeaderboardScoreRepository.UserTotal> totals = List.of(userTotal(1, 500), userTotal(2, 900));
+        List<BetRepository.RoundNet> replayed = List.of(roundNet(replayedStart, 1, "7.00"));
+        when(leaderboardScoreRepository.sumByUser()).thenReturn(totals);
+        when(leaderboardScoreRepository.findByDay(today)).thenReturn(List.of(new LeaderboardScore(today, 1L, 300, watermark)));
+        when(leaderboardScoreRepository.findAppliedThrough()).thenReturn(Optional.of(watermark));
+        when(betRepository.sumNetByRoundStartedAfter(watermark, RoundStatus.FINISHED, BetStatus.WON)).thenReturn(replayed);
+        service = service(10);
+
+        service.rebuild();
+
+        LeaderboardDTO leaderboard = service.getLeaderboard();
+        assertThat(leaderboard.getDaily()).extracting(LeaderboardEntryDTO::getUserId, LeaderboardEntryDTO::getNet)
+                .containsExactly(tuple(1L, new BigDecimal("10.00")));
+        assertThat(leaderboard.getAllTime()).extracting(LeaderboardEntryDTO::getUserId, LeaderboardEntryDTO::getNet)
+                .containsExactly(tuple(1L, new BigDecimal("12.00")), tuple(2L, new BigDecimal("9.00")));
+    }
+
+    @Test
+    void checkpointWritesChangedScoresWithTheWatermark() {
+        when(roundEngine.isActive()).thenReturn(true);
+        service = service(10);
+        LocalDateTime started = LocalDateTime.now();
+        service.apply(round(1, started.minusSeconds(30)), List.of(bet(1, BetStatus.WON, "10.00", "20.00")));
+        service.apply(round(2, started), List.of(bet(2, BetStatus.LOST, "5.00", "-5.00")));
+
+        service.start();
+
+        ArgumentCaptor<List<LeaderboardScore>> written = scoresCaptor();
+        verify(leaderboardJdbcRepository, timeout(20 * CHECKPOINT_INTERVAL_MILLIS)).upsertScores(written.capture());
+        assertThat(written.getValue()).extracting(LeaderboardScore::getUserId, LeaderboardScore::getNetCents,
+                        LeaderboardScore::getAppliedThrough)
+                .containsExactlyInAnyOrder(tuple(1L, 1_000L, started), tuple(2L, -500L, started));
+    }
+
+    @Test
+    void failedCheckpointIsRetried() {
+        when(roundEngine.isActive()).thenReturn(true);
+        doThrow(new IllegalStateException("database down")).doNothing()
+                .when(leaderboardJdbcRepository).upsertScores(any());
+        service = service(10);
+        service.apply(round(1, LocalDateTime.now()), List.of(bet(1, BetStatus.WON, "10.00", "20.00")));
+
+        service.start();
+
+        ArgumentCaptor<List<LeaderboardScore>> attempts = scoresCaptor();
+        verify(leaderboardJdbcRepository, timeout(20 * CHECKPOINT_INTERVAL_MILLIS).times(2)).upsertScores(attempts.capture());
+        assertThat(attempts.getAllValues().get(1)).extracting(LeaderboardScore::getUserId).containsExactly(1L);
+    }
+
+    @Test
+    void inactiveNodeDoesNotCheckpoint() {
+        service = service(10);
+        service.apply(round(1, LocalDateTime.now()), List.of(bet(1, BetStatus.WON, "10.00", "20.00")));
+
+        service.start();
+
+        verify(leaderboardJdbcRepository, after(5 * CHECKPOINT_INTERVAL_MILLIS).never()).upsertScores(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private LeaderboardService service(int size) {
+        ObjectProvider<RoundEngine> engineProvider = mock(ObjectProvider.class);
+        when(engineProvider.getObject()).thenReturn(roundEngine);
+        return new LeaderboardService(leaderboardScoreRepository, leaderboardJdbcRepository, betRepository, eventPublisher,
+                engineProvider, size, CHECKPOINT_INTERVAL_MILLIS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<LeaderboardScore>> scoresCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    private static Round round(long id, LocalDateTime startTime) {
+        Round round = new Round();
+        round.setId(id);
+        round.setStartTime(startTime);
+        return round;
+    }
+
+    private static Bet bet(long userId, BetStatus status, String amount, String winnings) {
+        User user = new User();
+        user.setId(userId);
+        Bet bet = new Bet();
+        bet.setUser(user);
+        bet.setStatus(status);
+        bet.setAmount(new BigDecimal(amount));
+        bet.setWinnings(new BigDecimal(winnings));
+        return bet;
+    }
+
+    private static LeaderboardScoreRepository.UserTotal userTotal(long userId, long netCents) {
+        LeaderboardScoreRepository.UserTotal total = mock(LeaderboardScoreRepository.UserTotal.class);
+        when(total.getUserId()).thenReturn(userId);
+        when(total.getNetCents()).thenReturn(netCents);
+        return total;
+    }
+
+    private static BetRepository.RoundNet roundNet(LocalDateTime startTime, long userId, String net) {
+        BetRepository.RoundNet roundNet = mock(BetRepository.RoundNet.class);
+        when(roundNet.getStartTime()).thenReturn(startTime);
+        when(roundNet.getUserId()).thenReturn(userId);
+        when(roundNet.getNet()).thenReturn(new BigDecimal(net));
+        return roundNet;
+    }
+}
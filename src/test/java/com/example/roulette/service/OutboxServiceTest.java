@@ -0,0 +1,146 @@
+package com.example.roulette.service;
+
+import com.example.roulette.dto.BetResponseDTO;
+import com.example.roulette.dto.RoundEventDTO;
+import com.example.roulette.dto.RoundEventType;
+import com.example.roulette.model.OutboxEvent;
+import com.example.roulette.model.RoundStatus;
+import com.example.roulette.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxServiceTest {
+
+    private static final long POLL_INTERVAL_MILLIS = 20;
+
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final RoundEventPublisher eventPublisher = mock(RoundEventPublisher.class);
+    private final RoundEngine roundEngine = mock(RoundEngine.class);
+    private final RoundEventCodec roundEventCodec = new RoundEventCodec(new ObjectMapper().registerModule(new JavaTimeModule()));
+    private OutboxService outboxService;
+    private long nextId;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        ObjectProvider<RoundEngine> engineProvider = mock(ObjectProvider.class);
+        when(engineProvider.getObject()).thenReturn(roundEngine);
+        when(roundEngine.isActive()).thenReturn(true);
+        outboxService = new OutboxService(outboxEventRepository, eventPublisher, roundEventCodec, transactionTemplate,
+                engineProvider, 2, POLL_INTERVAL_MILLIS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxService.stop();
+    }
+
+    @Test
+    void relayPublishesRowsInIdOrderAcrossBatches() {
+        RoundEventDTO inProgress = snapshotEvent(7);
+        when(roundEngine.relayedSnapshot(7, RoundStatus.IN_PROGRESS)).thenReturn(inProgress);
+        List<OutboxEvent> first = List.of(betRow(7, 1), betRow(7, 2));
+        List<OutboxEvent> second = List.of(snapshotRow(7, RoundStatus.IN_PROGRESS));
+        when(outboxEventRepository.claimBatch(anyInt())).thenReturn(first, second, List.of());
+
+        outboxService.start();
+
+        List<RoundEventDTO> published = published(3);
+        assertThat(published).extracting(RoundEventDTO::getType)
+                .containsExactly(RoundEventType.BET_PLACED, RoundEventType.BET_PLACED, RoundEventType.SNAPSHOT);
+        assertThat(published.get(0).getBet().getId()).isEqualTo(1);
+        assertThat(published.get(1).getBet().getId()).isEqualTo(2);
+        assertThat(published.get(2)).isSameAs(inProgress);
+        verify(outboxEventRepository).deleteAllInBatch(first);
+        verify(outboxEventRepository).deleteAllInBatch(second);
+    }
+
+    @Test
+    void malformedRowIsDroppedWithoutBlockingTheOthers() {
+        OutboxEvent malformed = row(RoundEventType.BET_PLACED, 7, "not json");
+        List<OutboxEvent> batch = List.of(malformed, betRow(7, 3));
+        when(outboxEventRepository.claimBatch(anyInt())).thenReturn(batch, List.of());
+
+        outboxService.start();
+
+        assertThat(published(1).get(0).getBet().getId()).isEqualTo(3);
+        verify(outboxEventRepository, timeout(50 * POLL_INTERVAL_MILLIS)).deleteAllInBatch(batch);
+    }
+
+    @Test
+    void snapshotOfARoundThatNoLongerExistsIsSkipped() {
+        List<OutboxEvent> batch = List.of(snapshotRow(8, RoundStatus.FINISHED), betRow(9, 4));
+        when(outboxEventRepository.claimBatch(anyInt())).thenReturn(batch, List.of());
+
+        outboxService.start();
+
+        assertThat(published(1).get(0).getRoundId()).isEqualTo(9);
+        verify(outboxEventRepository, timeout(50 * POLL_INTERVAL_MILLIS)).deleteAllInBatch(batch);
+    }
+
+    @Test
+    void inactiveNodeDoesNotRelay() {
+        when(roundEngine.isActive()).thenReturn(false);
+
+        outboxService.start();
+
+        verify(outboxEventRepository, after(10 * POLL_INTERVAL_MILLIS).never()).claimBatch(anyInt());
+    }
+
+    private List<RoundEventDTO> published(int count) {
+        ArgumentCaptor<RoundEventDTO> events = ArgumentCaptor.forClass(RoundEventDTO.class);
+        verify(eventPublisher, timeout(50 * POLL_INTERVAL_MILLIS).times(count)).publish(events.capture());
+        return events.getAllValues();
+    }
+
+    private OutboxEvent betRow(long roundId, long betId) {
+        BetResponseDTO bet = new BetResponseDTO();
+        bet.setId(betId);
+        bet.setRoundId(roundId);
+        RoundEventDTO event = new RoundEventDTO();
+        event.setType(RoundEventType.BET_PLACED);
+        event.setRoundId(roundId);
+        event.setBet(bet);
+        return row(RoundEventType.BET_PLACED, roundId, roundEventCodec.encode(event));
+    }
+
+    private OutboxEvent snapshotRow(long roundId, RoundStatus status) {
+        return row(RoundEventType.SNAPSHOT, roundId, status.name());
+    }
+
+    private OutboxEvent row(RoundEventType type, long roundId, String payload) {
+        OutboxEvent row = new OutboxEvent(type.name(), roundId, payload, LocalDateTime.now());
+        row.setId(++nextId);
+        return row;
+    }
+
+    private static RoundEventDTO snapshotEvent(long roundId) {
+        RoundEventDTO event = new RoundEventDTO();
+        event.setType(RoundEventType.SNAPSHOT);
+        event.setRoundId(roundId);
+        return event;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.roulette.service;
+
+import com.example.roulette.dto.BetRequestDTO;
+import com.example.roulette.exception.InsufficientBalanceException;
+import com.example.roulette.exception.InvalidBetException;
+import com.example.roulette.exception.RoundClosedException;
+import com.example.roulette.model.Color;
+import com.example.roulette.model.Round;
+import com.example.roulette.model.User;
+import com.example.roulette.repository.BetRepository;
+import com.example.roulette.repository.RoundRepository;
+import com.example.roulette.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RouletteServiceTest {
+
+    private final BetRepository betRepository = mock(BetRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RoundEngine roundEngine = mock(RoundEngine.class);
+    private final BalanceCache balanceCache = mock(BalanceCache.class);
+    private final OutboxService outboxService = mock(OutboxService.class);
+    private final RoundState open = RoundState.IDLE.next(new Round(), Long.MAX_VALUE);
+    private RouletteService rouletteService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(roundEngine.enter()).thenAnswer(invocation -> {
+            assertThat(open.getLedger().tryEnter()).isTrue();
+            return open;
+        });
+        when(userRepository.getReferenceById(anyLong())).thenAnswer(invocation -> {
+            User user = new User();
+            user.setId(invocation.getArgument(0));
+            return user;
+        });
+        rouletteService = new RouletteService(betRepository, mock(RoundRepository.class), userRepository, roundEngine,
+                balanceCache, outboxService, transactionTemplate, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void batchIsDebitedAsOneStakePerUser() {
+        when(betRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        rouletteService.placeBets(List.of(bet(1, "5.00"), bet(1, "2.50"), bet(2, "1.00")));
+
+        verify(balanceCache).debitAll(Map.of(1L, 750L, 2L, 100L));
+        assertThat(open.getLedger().size()).isEqualTo(3);
+    }
+
+    @Test
+    void invalidBetRejectsTheWholeBatchBeforeAnythingIsDebited() {
+        List<BetRequestDTO> bets = List.of(bet(1, "5.00"), bet(2, "0.00"));
+
+        assertThatThrownBy(() -> rouletteService.placeBets(bets)).isInstanceOf(InvalidBetException.class);
+
+        verify(roundEngine, never()).enter();
+        verify(balanceCache, never()).debitAll(any());
+    }
+
+    @Test
+    void insufficientBalanceRejectsTheWholeBatch() {
+        doThrow(new InsufficientBalanceException("Insufficient balance")).when(balanceCache).debitAll(any());
+
+        assertThatThrownBy(() -> rouletteService.placeBets(List.of(bet(1, "5.00"), bet(2, "1.00"))))
+                .isInstanceOf(InvalidBetException.class);
+
+        verify(betRepository, never()).saveAll(any());
+        assertThat(open.getLedger().size()).isZero();
+    }
+
+    @Test
+    void failedInsertRefundsTheStakes() {
+        when(betRepository.saveAll(anyList())).thenThrow(new IllegalStateException("insert failed"));
+
+        assertThatThrownBy(() -> rouletteService.placeBets(List.of(bet(1, "5.00"), bet(1, "2.50"))))
+                .hasMessage("insert failed");
+
+        verify(balanceCache).creditAll(Map.of(1L, 750L));
+        verify(outboxService, never()).append(any());
+        assertThat(open.getLedger().size()).isZero();
+    }
+
+    @Test
+    void betOnAClosedRoundIsNotDebited() {
+        when(roundEngine.enter()).thenThrow(new RoundClosedException("No round is accepting bets"));
+
+        assertThatThrownBy(() -> rouletteService.placeBets(List.of(bet(1, "5.00"))))
+                .isInstanceOf(RoundClosedException.class);
+
+        verify(balanceCache, never()).debitAll(any());
+    }
+
+    private static BetRequestDTO bet(long userId, String amount) {
+        BetRequestDTO bet = new BetRequestDTO();
+        bet.setUserId(userId);
+        bet.setAmount(new BigDecimal(amount));
+        bet.setColor(Color.RED);
+        return bet;
+    }
+}
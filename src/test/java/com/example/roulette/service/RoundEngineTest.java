@@ -0,0 +1,140 @@
+package com.example.roulette.service;
+
+import com.example.roulette.model.Color;
+import com.example.roulette.model.Round;
+import com.example.roulette.model.RoundStatus;
+import com.example.roulette.repository.BetRepository;
+import com.example.roulette.repository.RoundRepository;
+import com.example.roulette.websocket.WebSocketHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RoundEngineTest {
+
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    private final RoundRepository roundRepository = mock(RoundRepository.class);
+    private final SettlementService settlementService = mock(SettlementService.class);
+    private final RoundEventPublisher eventPublisher = mock(RoundEventPublisher.class);
+    private final OutcomeEngine outcomeEngine = mock(OutcomeEngine.class);
+    private final RoundStatisticsService roundStatistics = mock(RoundStatisticsService.class);
+    private final LeaderboardService leaderboard = mock(LeaderboardService.class);
+    private final Outcome first = new Outcome(Color.RED, "seed-1", "hash-1");
+    private final Outcome second = new Outcome(Color.BLACK, "seed-2", "hash-2");
+    private RoundEngine roundEngine;
+    private long nextRoundId;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(outcomeEngine.next()).thenReturn(first, second);
+        roundEngine = new RoundEngine(roundRepository, mock(BetRepository.class), settlementService, eventPublisher,
+                mock(OutboxService.class), outcomeEngine, roundStatistics, leaderboard, transactionTemplate,
+                mock(WebSocketHandler.class), new ObjectMapper().registerModule(new JavaTimeModule()),
+                new SimpleMeterRegistry(), false, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        roundEngine.stop();
+    }
+
+    @Test
+    void roundThatCouldNotBeSavedLeavesItsOutcomeToTheNextOne() {
+        when(roundRepository.save(any(Round.class)))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenAnswer(invocation -> saved(invocation.getArgument(0)));
+
+        roundEngine.activate();
+
+        ArgumentCaptor<Round> rounds = ArgumentCaptor.forClass(Round.class);
+        verify(roundRepository, timeout(TIMEOUT_MILLIS).times(2)).save(rounds.capture());
+        assertThat(rounds.getAllValues()).extracting(Round::getServerSeedHash).containsExactly("hash-1", "hash-1");
+        verify(outcomeEngine, times(1)).next();
+    }
+
+    @Test
+    void abandonedRoundRevealsItsSeed() {
+        when(roundRepository.save(any(Round.class))).thenAnswer(invocation -> saved(invocation.getArgument(0)));
+        roundEngine.activate();
+        verify(eventPublisher, timeout(TIMEOUT_MILLIS)).publish(any());
+
+        roundEngine.deactivate();
+
+        verify(roundRepository).revealServerSeed(1L, "seed-1");
+    }
+
+    @Test
+    void settlementThatFailsOnceIsRetried() throws InterruptedException {
+        RoundState inProgress = inProgress(7);
+        when(settlementService.settleRound(any(), any()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        // apply() is synchronized, so a timeout verify on it would keep the worker out.
+        CountDownLatch applied = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            applied.countDown();
+            return null;
+        }).when(leaderboard).apply(any(), any());
+
+        roundEngine.settle(inProgress, first, 1);
+
+        assertThat(applied.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+        verify(settlementService, times(2)).settleRound(any(), any());
+        verify(roundStatistics).record(7L, Color.RED);
+        verify(leaderboard).apply(inProgress.getRound(), List.of());
+        verify(settlementService, never()).cancelRound(any(), any());
+    }
+
+    @Test
+    void roundThatCannotBeSettledIsCancelledWithItsSeed() {
+        doThrow(new IllegalStateException("database down")).when(settlementService).settleRound(any(), any());
+
+        roundEngine.settle(inProgress(7), first, 1);
+
+        verify(settlementService, timeout(TIMEOUT_MILLIS)).cancelRound(7L, "seed-1");
+        verify(settlementService, times(3)).settleRound(any(), any());
+    }
+
+    private Round saved(Round round) {
+        round.setId(++nextRoundId);
+        return round;
+    }
+
+    private static RoundState inProgress(long roundId) {
+        Round round = new Round();
+        round.setId(roundId);
+        round.setStatus(RoundStatus.IN_PROGRESS);
+        round.setStartTime(LocalDateTime.now());
+        return RoundState.IDLE.next(round, System.nanoTime()).withStatus(RoundStatus.IN_PROGRESS);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.roulette.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoundLedgerTest {
+
+    private final RoundLedger ledger = new RoundLedger();
+
+    @Test
+    void sealingTurnsAwayNewEntrants() {
+        assertThat(ledger.tryEnter()).isTrue();
+        ledger.exit();
+
+        ledger.seal();
+
+        assertThat(ledger.tryEnter()).isFalse();
+    }
+
+    @Test
+    void quiescenceWaitsForEntrantsAlreadyInside() throws Exception {
+        assertThat(ledger.tryEnter()).isTrue();
+        assertThat(ledger.tryEnter()).isTrue();
+        ledger.seal();
+
+        CompletableFuture<Void> quiescent = CompletableFuture.runAsync(ledger::awaitQuiescence);
+        ledger.exit();
+        Thread.sleep(50);
+        assertThat(quiescent).isNotDone();
+
+        ledger.exit();
+        quiescent.get(5, TimeUnit.SECONDS);
+        assertThat(ledger.tryEnter()).isFalse();
+    }
+
+    @Test
+    void quiescenceReturnsAtOnceWhenNobodyIsInside() throws Exception {
+        ledger.seal();
+
+        CompletableFuture.runAsync(ledger::awaitQuiescence).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void concurrentEntrantsAreAllCountedBeforeTheSeal() throws Exception {
+        int entrants = 8;
+        CompletableFuture<?>[] entered = new CompletableFuture<?>[entrants];
+        for (int i = 0; i < entrants; i++) {
+            entered[i] = CompletableFuture.supplyAsync(ledger::tryEnter);
+        }
+        CompletableFuture.allOf(entered).get(5, TimeUnit.SECONDS);
+        ledger.seal();
+
+        CompletableFuture<Void> quiescent = CompletableFuture.runAsync(ledger::awaitQuiescence);
+        for (int i = 0; i < entrants - 1; i++) {
+            ledger.exit();
+        }
+        Thread.sleep(50);
+        assertThat(quiescent).isNotDone();
+
+        ledger.exit();
+        quiescent.get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.roulette.service;
+
+import com.example.roulette.dto.RoundResultDTO;
+import com.example.roulette.dto.RoundStatsDTO;
+import com.example.roulette.model.Color;
+import com.example.roulette.model.RoundStatus;
+import com.example.roulette.repository.RoundRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoundStatisticsServiceTest {
+
+    private final RoundRepository roundRepository = mock(RoundRepository.class);
+    private final RoundStatisticsService service = new RoundStatisticsService(roundRepository);
+
+    @Test
+    void ringBufferKeepsTheLatestResultsNewestFirst() {
+        int rounds = RoundStatisticsService.RECENT_RESULTS + 5;
+        for (long roundId = 1; roundId <= rounds; roundId++) {
+            service.record(roundId, roundId % 2 == 0 ? Color.RED : Color.BLACK);
+        }
+
+        RoundStatsDTO stats = service.getStats();
+
+        assertThat(stats.getRecentResults()).hasSize(RoundStatisticsService.RECENT_RESULTS);
+        assertThat(stats.getRecentResults().get(0).getRoundId()).isEqualTo(rounds);
+        assertThat(stats.getRecentResults().get(RoundStatisticsService.RECENT_RESULTS - 1).getRoundId()).isEqualTo(6);
+        assertThat(stats.getRecentCounts().get(Color.RED)).isEqualTo(50);
+        assertThat(stats.getRecentCounts().get(Color.BLACK)).isEqualTo(50);
+        assertThat(stats.getRecentCounts().get(Color.GREEN)).isZero();
+        assertThat(stats.getTotalCounts().get(Color.BLACK)).isEqualTo(53);
+        assertThat(stats.getTotalRounds()).isEqualTo(rounds);
+    }
+
+    @Test
+    void evictedResultsLeaveTheRecentCounts() {
+        service.record(1, Color.GREEN);
+        for (long roundId = 2; roundId <= RoundStatisticsService.RECENT_RESULTS + 1; roundId++) {
+            service.record(roundId, Color.RED);
+        }
+
+        RoundStatsDTO stats = service.getStats();
+
+        assertThat(stats.getRecentCounts().get(Color.GREEN)).isZero();
+        assertThat(stats.getRecentCounts().get(Color.RED)).isEqualTo(RoundStatisticsService.RECENT_RESULTS);
+        assertThat(stats.getTotalCounts().get(Color.GREEN)).isEqualTo(1);
+    }
+
+    @Test
+    void streakCountsTheLatestRunOfOneColor() {
+        service.record(1, Color.RED);
+        service.record(2, Color.BLACK);
+        service.record(3, Color.BLACK);
+        service.record(4, Color.BLACK);
+
+        RoundStatsDTO stats = service.getStats();
+
+        assertThat(stats.getStreakColor()).isEqualTo(Color.BLACK);
+        assertThat(stats.getStreakLength()).isEqualTo(3);
+    }
+
+    @Test
+    void loadReplacesEverythingWithTheDatabaseState() {
+        service.record(1, Color.GREEN);
+        List<RoundResultDTO> recent = new ArrayList<>();
+        for (long roundId = 30; roundId > 20; roundId--) {
+            recent.add(new RoundResultDTO(roundId, roundId > 27 ? Color.RED : Color.BLACK));
+        }
+        when(roundRepository.findRecentResults(eq(RoundStatus.FINISHED), any(Pageable.class))).thenReturn(recent);
+        List<RoundRepository.ColorCount> totals = List.of(colorCount(Color.RED, 400), colorCount(Color.BLACK, 380));
+        when(roundRepository.countByWinningColor(RoundStatus.FINISHED)).thenReturn(totals);
+
+        service.load();
+        RoundStatsDTO stats = service.getStats();
+
+        assertThat(stats.getRecentResults()).extracting(RoundResultDTO::getRoundId).startsWith(30L, 29L).endsWith(21L);
+        assertThat(stats.getRecentCounts().get(Color.GREEN)).isZero();
+        assertThat(stats.getTotalCounts().get(Color.RED)).isEqualTo(400);
+        assertThat(stats.getTotalRounds()).isEqualTo(780);
+        assertThat(stats.getStreakColor()).isEqualTo(Color.RED);
+        assertThat(stats.getStreakLength()).isEqualTo(3);
+    }
+
+    private static RoundRepository.ColorCount colorCount(Color color, long rounds) {
+        RoundRepository.ColorCount count = mock(RoundRepository.ColorCount.class);
+        when(count.getColor()).thenReturn(color);
+        when(count.getRounds()).thenReturn(rounds);
+        return count;
+    }
+}
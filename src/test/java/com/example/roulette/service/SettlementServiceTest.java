@@ -0,0 +1,100 @@
+package com.example.roulette.service;
+
+import com.example.roulette.model.Bet;
+import com.example.roulette.model.BetStatus;
+import com.example.roulette.model.Round;
+import com.example.roulette.model.RoundStatus;
+import com.example.roulette.model.User;
+import com.example.roulette.repository.BetRepository;
+import com.example.roulette.repository.RoundRepository;
+import com.example.roulette.repository.SettlementJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SettlementServiceTest {
+
+    private final RoundRepository roundRepository = mock(RoundRepository.class);
+    private final BetRepository betRepository = mock(BetRepository.class);
+    private final SettlementJdbcRepository settlementJdbcRepository = mock(SettlementJdbcRepository.class);
+    private final BalanceCache balanceCache = mock(BalanceCache.class);
+    private final OutboxService outboxService = mock(OutboxService.class);
+    private SettlementService settlementService;
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(roundRepository.save(any(Round.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        settlementService = new SettlementService(roundRepository, betRepository, settlementJdbcRepository,
+                balanceCache, outboxService, transactionTemplate);
+    }
+
+    @Test
+    void onlyWinningBetsArePaidOut() {
+        Round round = round(5);
+        List<Bet> bets = List.of(
+                bet(1, BetStatus.WON, "10.00", "20.00"),
+                bet(1, BetStatus.LOST, "3.00", "-3.00"),
+                bet(2, BetStatus.LOST, "5.00", "-5.00"));
+
+        settlementService.settleRound(round, bets);
+
+        verify(settlementJdbcRepository).updateBetOutcomes(bets);
+        verify(outboxService).appendSnapshot(5L, RoundStatus.FINISHED);
+        verify(balanceCache).creditRound(5L, Map.of(1L, 2_000L));
+        assertThat(round.getCredited()).isFalse();
+    }
+
+    @Test
+    void roundWithOnlyLosingBetsCreditsNobody() {
+        settlementService.settleRound(round(6), List.of(bet(2, BetStatus.LOST, "5.00", "-5.00")));
+
+        verify(balanceCache).creditRound(6L, Map.of());
+    }
+
+    @Test
+    void cancelledRoundRevealsItsSeedAndIsRefunded() {
+        Round round = round(8);
+        round.setStatus(RoundStatus.IN_PROGRESS);
+        when(roundRepository.findById(8L)).thenReturn(Optional.of(round));
+        when(settlementJdbcRepository.refundBets(8L)).thenReturn(2);
+
+        settlementService.cancelRound(8L, "seed-8");
+
+        verify(roundRepository).markCancelled(8L, "seed-8", RoundStatus.CANCELLED);
+        verify(outboxService).appendSnapshot(8L, RoundStatus.CANCELLED);
+        verify(balanceCache).creditRound(8L, Map.of());
+    }
+
+    private static Round round(long id) {
+        Round round = new Round();
+        round.setId(id);
+        round.setStatus(RoundStatus.FINISHED);
+        return round;
+    }
+
+    private static Bet bet(long userId, BetStatus status, String amount, String winnings) {
+        User user = new User();
+        user.setId(userId);
+        Bet bet = new Bet();
+        bet.setUser(user);
+        bet.setStatus(status);
+        bet.setAmount(new BigDecimal(amount));
+        bet.setWinnings(new BigDecimal(winnings));
+        return bet;
+    }
+}
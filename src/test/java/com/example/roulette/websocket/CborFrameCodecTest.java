@@ -0,0 +1,151 @@
+package com.example.roulette.websocket;
+
+import com.example.roulette.dto.BetResponseDTO;
+import com.example.roulette.dto.LeaderboardDTO;
+import com.example.roulette.dto.LeaderboardEntryDTO;
+import com.example.roulette.dto.RoundEventDTO;
+import com.example.roulette.dto.RoundEventType;
+import com.example.roulette.dto.RoundResponseDTO;
+import com.example.roulette.dto.RoundSnapshot;
+import com.example.roulette.model.BetStatus;
+import com.example.roulette.model.Color;
+import com.example.roulette.model.RoundStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CborFrameCodecTest {
+
+    private static final String SEED_HASH = "ab".repeat(32);
+
+    private final CborFrameCodec codec = new CborFrameCodec();
+    private final CBORMapper cborMapper = new CBORMapper();
+
+    @Test
+    void snapshotIsEncodedAsFixedLayoutArrays() throws IOException {
+        LocalDateTime placedAt = LocalDateTime.of(2025, 3, 14, 15, 9, 26);
+        BetResponseDTO bet = new BetResponseDTO();
+        bet.setId(7L);
+        bet.setUserId(3L);
+        bet.setAmount(new BigDecimal("12.50"));
+        bet.setColor(Color.BLACK);
+        bet.setStatus(BetStatus.WON);
+        bet.setTimestamp(placedAt);
+        bet.setRoundId(42L);
+        bet.setWinnings(new BigDecimal("25.00"));
+        RoundResponseDTO round = new RoundResponseDTO();
+        round.setId(42L);
+        round.setWinningColor(Color.BLACK);
+        round.setStatus(RoundStatus.FINISHED);
+        round.setServerSeedHash(SEED_HASH);
+        round.setBets(List.of(bet));
+        round.setTimeRemaining(1_500);
+
+        RoundEventDTO event = new RoundEventDTO();
+        event.setType(RoundEventType.SNAPSHOT);
+        event.setSequence(9);
+        event.setRoundId(42L);
+        event.setSnapshot(RoundSnapshot.encode(new ObjectMapper().registerModule(new JavaTimeModule()), 1, round));
+
+        JsonNode frame = decode(event);
+
+        assertThat(frame).hasSize(1);
+        JsonNode encodedEvent = frame.get(0);
+        assertThat(encodedEvent).hasSize(6);
+        assertThat(encodedEvent.get(0).asInt()).isEqualTo(RoundEventType.SNAPSHOT.ordinal());
+        assertThat(encodedEvent.get(1).asLong()).isEqualTo(9);
+        assertThat(encodedEvent.get(2).asLong()).isEqualTo(42);
+        assertThat(encodedEvent.get(4).isNull()).isTrue();
+        assertThat(encodedEvent.get(5).isNull()).isTrue();
+
+        JsonNode encodedRound = encodedEvent.get(3);
+        assertThat(encodedRound.get(0).asLong()).isEqualTo(42);
+        assertThat(encodedRound.get(1).asInt()).isEqualTo(Color.BLACK.ordinal());
+        assertThat(encodedRound.get(2).asInt()).isEqualTo(RoundStatus.FINISHED.ordinal());
+        assertThat(encodedRound.get(3).asLong()).isEqualTo(1_500);
+        assertThat(encodedRound.get(5).binaryValue()).isEqualTo(HexFormat.of().parseHex(SEED_HASH));
+        assertThat(encodedRound.get(6).isNull()).isTrue();
+
+        JsonNode encodedBet = encodedRound.get(4).get(0);
+        assertThat(encodedBet.get(0).asLong()).isEqualTo(7);
+        assertThat(encodedBet.get(1).asLong()).isEqualTo(3);
+        assertThat(encodedBet.get(2).asLong()).isEqualTo(1_250);
+        assertThat(encodedBet.get(3).asInt()).isEqualTo(Color.BLACK.ordinal());
+        assertThat(encodedBet.get(4).asInt()).isEqualTo(BetStatus.WON.ordinal());
+        assertThat(encodedBet.get(5).asLong()).isEqualTo(placedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        assertThat(encodedBet.get(6).asLong()).isEqualTo(42);
+        assertThat(encodedBet.get(7).asLong()).isEqualTo(2_500);
+    }
+
+    @Test
+    void leaderboardIsEncodedAsDayAndEntryArrays() throws IOException {
+        LeaderboardDTO leaderboard = new LeaderboardDTO(LocalDate.of(2025, 3, 14),
+                List.of(new LeaderboardEntryDTO(3L, new BigDecimal("-4.10"))),
+                List.of(new LeaderboardEntryDTO(5L, new BigDecimal("100"))));
+        RoundEventDTO event = new RoundEventDTO();
+        event.setType(RoundEventType.LEADERBOARD);
+        event.setRoundId(42L);
+        event.setLeaderboard(leaderboard);
+
+        JsonNode encoded = decode(event).get(0).get(5);
+
+        assertThat(encoded.get(0).asText()).isEqualTo("2025-03-14");
+        assertThat(encoded.get(1).get(0).get(0).asLong()).isEqualTo(3);
+        assertThat(encoded.get(1).get(0).get(1).asLong()).isEqualTo(-410);
+        assertThat(encoded.get(2).get(0).get(1).asLong()).isEqualTo(10_000);
+    }
+
+    @Test
+    void betDeltaCarriesNoRound() throws IOException {
+        BetResponseDTO bet = new BetResponseDTO();
+        bet.setId(8L);
+        bet.setAmount(new BigDecimal("0.05"));
+        RoundEventDTO event = new RoundEventDTO();
+        event.setType(RoundEventType.BET_PLACED);
+        event.setRoundId(42L);
+        event.setBet(bet);
+
+        JsonNode encodedEvent = decode(event).get(0);
+
+        assertThat(encodedEvent.get(0).asInt()).isEqualTo(RoundEventType.BET_PLACED.ordinal());
+        assertThat(encodedEvent.get(3).isNull()).isTrue();
+        assertThat(encodedEvent.get(4).get(0).asLong()).isEqualTo(8);
+        assertThat(encodedEvent.get(4).get(2).asLong()).isEqualTo(5);
+    }
+
+    @Test
+    void fractionalCentsAreRefused() {
+        BetResponseDTO bet = new BetResponseDTO();
+        bet.setId(7L);
+        bet.setAmount(new BigDecimal("0.001"));
+        RoundEventDTO event = new RoundEventDTO();
+        event.setType(RoundEventType.BET_PLACED);
+        event.setRoundId(42L);
+        event.setBet(bet);
+
+        assertThatThrownBy(() -> codec.encode(List.of(event))).isInstanceOf(IOException.class);
+    }
+
+    private JsonNode decode(RoundEventDTO event) throws IOException {
+        BinaryMessage message = (BinaryMessage) codec.encode(List.of(event));
+        ByteBuffer payload = message.getPayload();
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        return cborMapper.readTree(bytes);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.roulette.websocket;
+
+import com.example.roulette.dto.BetResponseDTO;
+import com.example.roulette.dto.RoundEventDTO;
+import com.example.roulette.dto.RoundEventType;
+import com.example.roulette.dto.RoundResponseDTO;
+import com.example.roulette.dto.RoundSnapshot;
+import com.example.roulette.model.BetStatus;
+import com.example.roulette.model.Color;
+import com.example.roulette.model.RoundStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WebSocketHandlerTest {
+
+    private static final long BROADCAST_INTERVAL_MILLIS = 100;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private WebSocketHandler handler;
+    private WebSocketSession session;
+
+    @BeforeEach
+    void connect() {
+        handler = new WebSocketHandler(objectMapper, new SimpleMeterRegistry(), 16, BROADCAST_INTERVAL_MILLIS);
+        session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("session-1");
+        when(session.isOpen()).thenReturn(true);
+        handler.afterConnectionEstablished(session);
+    }
+
+    @AfterEach
+    void shutdown() {
+        handler.shutdown();
+    }
+
+    @Test
+    void tickKeepsTheLatestSnapshotAndDropsTheBetsItContains() throws Exception {
+        publish(betPlaced(10, 1), snapshot(10, 1), betPlaced(10, 2), snapshot(10, 1, 2), betPlaced(10, 3));
+
+        JsonNode frame = nextFrames(1).get(0);
+
+        assertThat(frame).hasSize(2);
+        assertThat(frame.get(0).get("type").asText()).isEqualTo("SNAPSHOT");
+        assertThat(frame.get(0).get("round").get("bets")).hasSize(2);
+        assertThat(frame.get(1).get("type").asText()).isEqualTo("BET_PLACED");
+        assertThat(frame.get(1).get("bet").get("id").asLong()).isEqualTo(3);
+        assertThat(sequences(frame)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void snapshotOnlyCoversBetsOfItsOwnRound() throws Exception {
+        publish(betPlaced(10, 1), snapshot(11, 1));
+
+        JsonNode frame = nextFrames(1).get(0);
+
+        assertThat(frame).hasSize(2);
+        assertThat(frame.get(0).get("roundId").asLong()).isEqualTo(10);
+        assertThat(frame.get(1).get("roundId").asLong()).isEqualTo(11);
+    }
+
+    @Test
+    void sequenceContinuesAcrossTicks() throws Exception {
+        publish(betPlaced(10, 1), betPlaced(10, 2));
+        nextFrames(1);
+        publish(betPlaced(10, 3));
+
+        List<JsonNode> frames = nextFrames(2);
+
+        assertThat(sequences(frames.get(0))).containsExactly(1L, 2L);
+        assertThat(sequences(frames.get(1))).containsExactly(3L);
+    }
+
+    // Events are built up front, so a tick cannot fall between two of them.
+    private void publish(RoundEventDTO... events) {
+        for (RoundEventDTO event : events) {
+            handler.publish(event);
+        }
+    }
+
+    private List<JsonNode> nextFrames(int count) throws Exception {
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, timeout(10 * BROADCAST_INTERVAL_MILLIS).times(count)).sendMessage(sent.capture());
+        List<JsonNode> frames = new ArrayList<>();
+        for (TextMessage message : sent.getAllValues()) {
+            frames.add(objectMapper.readTree(message.getPayload()));
+        }
+        return frames;
+    }
+
+    private static List<Long> sequences(JsonNode frame) {
+        List<Long> sequences = new ArrayList<>();
+        frame.forEach(event -> sequences.add(event.get("sequence").asLong()));
+        return sequences;
+    }
+
+    private static RoundEventDTO betPlaced(long roundId, long betId) {
+        RoundEventDTO event = new RoundEventDTO();
+        event.setType(RoundEventType.BET_PLACED);
+        event.setRoundId(roundId);
+        event.setBet(bet(roundId, betId));
+        return event;
+    }
+
+    private RoundEventDTO snapshot(long roundId, long... betIds) {
+        RoundResponseDTO round = new RoundResponseDTO();
+        round.setId(roundId);
+        round.setStatus(RoundStatus.WAITING);
+        List<BetResponseDTO> bets = new ArrayList<>();
+        for (long betId : betIds) {
+            bets.add(bet(roundId, betId));
+        }
+        round.setBets(bets);
+
+        RoundEventDTO event = new RoundEventDTO();
+        event.setType(RoundEventType.SNAPSHOT);
+        event.setRoundId(roundId);
+        event.setSnapshot(RoundSnapshot.encode(objectMapper, betIds.length, round));
+        return event;
+    }
+
+    private static BetResponseDTO bet(long roundId, long betId) {
+        BetResponseDTO bet = new BetResponseDTO();
+        bet.setId(betId);
+        bet.setUserId(1L);
+        bet.setAmount(new BigDecimal("5.00"));
+        bet.setColor(Color.RED);
+        bet.setStatus(BetStatus.PENDING);
+        bet.setRoundId(roundId);
+        return bet;
+    }
+}